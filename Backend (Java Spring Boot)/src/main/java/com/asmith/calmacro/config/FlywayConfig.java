@@ -0,0 +1,25 @@
+package com.asmith.calmacro.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * FlywayConfig
+ * 
+ * Configuration class for schema migrations. Migrations live in db/migration on the classpath.
+ * Databases whose tables were created by Hibernate before migrations existed are baselined at
+ * version 1, the baseline schema, so only the migrations after it are applied to them.
+ */
+
+@Configuration
+public class FlywayConfig {
+
+    // Baselines a non-empty database without migration history at the baseline schema version
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+}
@@ -0,0 +1,30 @@
+package com.asmith.calmacro.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JpaBatchingConfig
+ * 
+ * Configuration class for Hibernate JDBC batching. Writes flushed together, such as a batch of
+ * logged foods and the rollup rows they update, are grouped by statement and sent to the
+ * database in batches instead of one round trip per row.
+ */
+
+@Configuration
+public class JpaBatchingConfig {
+
+    // Number of statements sent to the database in a single JDBC batch
+    private static final int BATCH_SIZE = 50;
+
+    // Enables JDBC batching and orders inserts and updates so statements of the same table can share a batch
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", BATCH_SIZE);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.asmith.calmacro.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig
+ * 
+ * Configuration class that enables Spring's scheduled task execution for background jobs.
+ */
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
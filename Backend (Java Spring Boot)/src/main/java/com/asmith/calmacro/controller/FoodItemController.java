@@ -1,13 +1,19 @@
 package com.asmith.calmacro.controller;
 
+import com.asmith.calmacro.dto.FoodItemSummary;
+import com.asmith.calmacro.dto.PageResponse;
 import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.service.ExternalFoodSearchService;
+import com.asmith.calmacro.service.FdcImportService;
 import com.asmith.calmacro.service.FoodItemService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +29,12 @@ public class FoodItemController {
     @Autowired
     private FoodItemService foodItemService;
 
+    @Autowired
+    private FdcImportService fdcImportService;
+
+    @Autowired
+    private ExternalFoodSearchService externalFoodSearchService;
+
     // Adds a new FoodItem
     @PostMapping("/add")
     public ResponseEntity<FoodItem> addFoodItem(@RequestBody FoodItem foodItem) {
@@ -41,10 +53,84 @@ public class FoodItemController {
         }
     }
 
-    // Searches for a FoodItem by name
+    // Searches for FoodItems by name. The default mode returns the first items, by ID, containing all keywords;
+    // the ranked mode returns the best matches by relevance, boosting the given user's own items,
+    // and the fuzzy mode tolerates typos in each keyword
     @GetMapping("/search")
-    public List<FoodItem> getFoodItemByName(@RequestParam String name) {
-        return foodItemService.getFoodItemByName(name);
+    public ResponseEntity<List<FoodItem>> getFoodItemByName(@RequestParam String name,
+                                                            @RequestParam(defaultValue = "contains") String mode,
+                                                            @RequestParam(required = false) Long userId,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        if (mode.equalsIgnoreCase("ranked")) {
+            return ResponseEntity.ok(foodItemService.searchRanked(name, userId, limit));
+        } else if (mode.equalsIgnoreCase("fuzzy")) {
+            return ResponseEntity.ok(foodItemService.searchFuzzy(name, limit));
+        } else if (mode.equalsIgnoreCase("contains")) {
+            return ResponseEntity.ok(foodItemService.getFoodItemByName(name, limit));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Retrieves one page of slim FoodItem summaries whose names contain every keyword
+    @GetMapping("/search/paged")
+    public ResponseEntity<PageResponse<FoodItemSummary>> searchFoodItemPage(@RequestParam String name,
+                                                                            @RequestParam(defaultValue = "0") int page,
+                                                                            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(foodItemService.searchPage(name, page, size));
+    }
+
+    // Suggests the most popular FoodItems with a word starting with the typed prefix
+    @GetMapping("/suggest")
+    public ResponseEntity<List<FoodItem>> suggestFoodItems(@RequestParam String prefix,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(foodItemService.suggest(prefix, limit));
+    }
+
+    // Retrieves the node count, key count, and estimated memory of the suggestion index
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<Map<String, Number>> getSuggestionStats() {
+        return ResponseEntity.ok(foodItemService.getSuggestionStats());
+    }
+
+    // Retrieves a FoodItem by its scanned UPC, EAN, or GTIN barcode
+    @GetMapping("/barcode/{code}")
+    public ResponseEntity<FoodItem> getFoodItemByBarcode(@PathVariable String code) {
+        return foodItemService.getFoodItemByBarcode(code)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Retrieves the hit, miss, and eviction counts of the barcode cache
+    @GetMapping("/barcode/cache/stats")
+    public ResponseEntity<Map<String, Number>> getBarcodeCacheStats() {
+        return ResponseEntity.ok(foodItemService.getBarcodeCacheStats());
+    }
+
+    // Retrieves the progress of the current or last FoodData Central import
+    @GetMapping("/import/status")
+    public ResponseEntity<Map<String, Object>> getImportStatus() {
+        return ResponseEntity.ok(fdcImportService.getStatus());
+    }
+
+    // Searches the external food database through the server's shared cache. Results are unsaved
+    // FoodItems; adding one to the catalog saves it under its FDC ID
+    @GetMapping("/external/search")
+    public ResponseEntity<List<FoodItem>> searchExternalFoods(@RequestParam String query,
+                                                              @RequestParam(defaultValue = "50") int pageSize) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(externalFoodSearchService.search(query, pageSize));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+
+    // Retrieves the hit, miss, and eviction counts of the external search cache
+    @GetMapping("/external/cache/stats")
+    public ResponseEntity<Map<String, Object>> getExternalSearchStats() {
+        return ResponseEntity.ok(externalFoodSearchService.getStats());
     }
 
     // Retrieves FoodItems for a specific user
@@ -60,6 +146,13 @@ public class FoodItemController {
         return ResponseEntity.ok(foodItems);
     }
 
+    // Retrieves a user's most frequently logged FoodItems, weighted toward recent logs
+    @GetMapping("/frequent/user/{userId}")
+    public ResponseEntity<List<FoodItem>> getFrequentFoodItemsForUser(@PathVariable Long userId,
+                                                                      @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(foodItemService.getFrequentFoodItemsForUser(userId, limit));
+    }
+
     // Update a FoodItem's details
     @PutMapping("/update/{id}")
     public ResponseEntity<FoodItem> updateFoodItemDetails(@PathVariable Long id, @RequestBody FoodItem foodItem) {
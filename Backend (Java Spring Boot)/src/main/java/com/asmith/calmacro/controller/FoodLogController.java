@@ -1,24 +1,35 @@
 package com.asmith.calmacro.controller;
 
 import com.asmith.calmacro.dto.FoodLogDTO;
+import com.asmith.calmacro.dto.NutrientTrendDTO;
+import com.asmith.calmacro.dto.TimelinePageDTO;
 import com.asmith.calmacro.model.FoodItem;
 import com.asmith.calmacro.model.FoodLog;
 import com.asmith.calmacro.model.Recipe;
 import com.asmith.calmacro.model.User;
+import com.asmith.calmacro.service.FoodLogExportService;
 import com.asmith.calmacro.service.FoodLogService;
+import com.asmith.calmacro.service.NutrientTrendService;
 import com.asmith.calmacro.service.UserService;
 
 import jakarta.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * FoodLogController
@@ -37,6 +48,12 @@ public class FoodLogController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private NutrientTrendService nutrientTrendService;
+
+    @Autowired
+    private FoodLogExportService foodLogExportService;
+
     //Logs a new FoodLog entry for a specific user, including details about the food item, meal, and water intake
     @PostMapping("/log")
     public ResponseEntity<FoodLog> logFood(@RequestBody FoodLogDTO foodLogDTO) {
@@ -61,6 +78,35 @@ public class FoodLogController {
         return ResponseEntity.ok(savedFoodLog);
     }
 
+    // Logs several FoodLog entries for a single user in one request, returning the new IDs and each affected day's totals
+    @PostMapping("/log/batch")
+    public ResponseEntity<Map<String, Object>> logFoods(@RequestBody List<FoodLogDTO> foodLogDTOs) {
+        if (foodLogDTOs.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Every entry in a batch must belong to the same user
+        Long userId = foodLogDTOs.get(0).getUserId();
+        if (foodLogDTOs.stream().anyMatch(dto -> !Objects.equals(userId, dto.getUserId()))) {
+            throw new IllegalArgumentException("All entries must belong to the same user");
+        }
+        User user = userService.getUserById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<FoodLog> savedFoodLogs = foodLogService.logFoods(user, foodLogDTOs);
+
+        // Totals are read once per logged date after the batch has been applied
+        Map<LocalDate, Map<String, BigDecimal>> dailyTotals = new TreeMap<>();
+        for (FoodLog foodLog : savedFoodLogs) {
+            dailyTotals.computeIfAbsent(foodLog.getLogDate(), date -> foodLogService.calculateDailyTotals(user, date));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("foodLogIds", savedFoodLogs.stream().map(FoodLog::getId).collect(Collectors.toList()));
+        response.put("dailyTotals", dailyTotals);
+        return ResponseEntity.ok(response);
+    }
+
     // Updates an existing FoodLog entry by modifying quantity, meal, unit, and unit quantity
     @PutMapping("/{foodLogId}/update")
     public ResponseEntity<FoodLog> updateFoodLog(@PathVariable Long foodLogId, @RequestParam BigDecimal quantity, 
@@ -99,21 +145,24 @@ public class FoodLogController {
     // Retrieves food logs for a specific user, optionally filtered by date, and includes daily totals and meal totals
     @GetMapping("/user/{userId}/logs")
     public ResponseEntity<Map<String, Object>> getFoodLogsByUserIdAndDate(
-            @PathVariable Long userId, @RequestParam(required = false) LocalDate date) {
+            @PathVariable Long userId, @RequestParam(required = false) LocalDate date, WebRequest request) {
         User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
         if (date == null) {
             date = LocalDate.now();
         }
+
+        // Answer with 304 when the client already holds this version of the day
+        String eTag = foodLogService.getDayETag(user, date);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<FoodLogDTO> foodLogs = foodLogService.getFoodLogsByUserIdAndDate(user, date);
-        Map<String, BigDecimal> dailyTotals = foodLogService.calculateDailyTotals(user, date);
-        Map<String, Map<String, BigDecimal>> dailyTotalsByMeal = foodLogService.calculateDailyTotalsByMeal(user, date);
 
-        Map<String, Object> response = new HashMap<>();
+        // Daily totals and meal totals come from the same read of the day's rollups
+        Map<String, Object> response = new HashMap<>(foodLogService.calculateDailySummary(user, date));
         response.put("foodLogs", foodLogs);
-        response.put("dailyTotals", dailyTotals);
-        response.put("dailyTotalsByMeal", dailyTotalsByMeal);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(eTag).body(response);
     }
 
     // Retrieves the FoodItem associated with a specific FoodLog entry using FoodLog ID
@@ -143,10 +192,17 @@ public class FoodLogController {
 
     // Calculates the daily totals for a user on a specific date
     @GetMapping("/totals")
-    public ResponseEntity<Map<String, BigDecimal>> calculateDailyTotals(@RequestParam Long userId, @RequestParam String date) {
+    public ResponseEntity<Map<String, BigDecimal>> calculateDailyTotals(@RequestParam Long userId, @RequestParam String date,
+                                                                        WebRequest request) {
         User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
         LocalDate logDate = LocalDate.parse(date);
-        return ResponseEntity.ok(foodLogService.calculateDailyTotals(user, logDate));
+
+        // Answer with 304 when the client already holds this version of the day
+        String eTag = foodLogService.getDayETag(user, logDate);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(foodLogService.calculateDailyTotals(user, logDate));
     }
 
     // Retrieves FoodLog entries for a user within a specified date range
@@ -158,6 +214,104 @@ public class FoodLogController {
         return ResponseEntity.ok(foodLogService.getFoodLogsForDateRange(user, start, end));
     }
 
+    // Retrieves a page of a user's FoodLog entries, newest first, continuing from the cursor of the previous page
+    @GetMapping("/timeline")
+    public ResponseEntity<TimelinePageDTO> getTimeline(@RequestParam Long userId, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return ResponseEntity.ok(foodLogService.getTimeline(user, cursor, limit));
+    }
+
+    // Retrieves nutrient totals per day, week, or month for a user within a specified date range
+    @GetMapping("/analytics")
+    public ResponseEntity<List<NutrientTrendDTO>> getNutrientTrend(@RequestParam Long userId, @RequestParam String startDate,
+            @RequestParam String endDate, @RequestParam(defaultValue = "day") String granularity) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+        return ResponseEntity.ok(nutrientTrendService.getTrend(user.getId(), start, end, granularity));
+    }
+
+    // Streams a user's FoodLog entries within a specified date range as NDJSON or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFoodLogs(@RequestParam Long userId, @RequestParam String startDate,
+            @RequestParam String endDate, @RequestParam(defaultValue = "ndjson") String format) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+        if (!foodLogExportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = format.equalsIgnoreCase("csv");
+        String fileName = "foodlog-" + start + "-to-" + end + (csv ? ".csv" : ".ndjson");
+
+        // Rows are written to the response as they are read, without building the whole list first
+        StreamingResponseBody body = outputStream ->
+                foodLogExportService.exportFoodLogs(user.getId(), start, end, format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Rebuilds a user's daily nutrient rollups for a date range from their FoodLog entries
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<Void> rebuildDailyRollups(@RequestParam Long userId, @RequestParam String startDate, @RequestParam String endDate) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        foodLogService.rebuildDailyRollups(user, LocalDate.parse(startDate), LocalDate.parse(endDate));
+        return ResponseEntity.noContent().build();
+    }
+
+    // Retrieves the hit, miss, and eviction counts of the daily totals cache
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Number>> getTotalsCacheStats() {
+        return ResponseEntity.ok(foodLogService.getTotalsCacheStats());
+    }
+
+    // Copies a user's FoodLog entries from one date, or from one meal of it, to another date in a single statement
+    @PostMapping("/copy")
+    public ResponseEntity<Map<String, Object>> copyLogs(@RequestParam Long userId, @RequestParam String sourceDate,
+            @RequestParam String targetDate, @RequestParam(required = false) String selectedMeal,
+            @RequestParam(required = false) String targetMeal) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        LocalDate target = LocalDate.parse(targetDate);
+        int copied = foodLogService.copyLogs(user, LocalDate.parse(sourceDate), selectedMeal, target, targetMeal);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("copied", copied);
+        response.put("dailyTotals", foodLogService.calculateDailyTotals(user, target));
+        return ResponseEntity.ok(response);
+    }
+
+    // Moves every FoodLog entry of one meal to another date and, optionally, another meal
+    @PostMapping("/move")
+    public ResponseEntity<Map<String, Object>> moveMeal(@RequestParam Long userId, @RequestParam String sourceDate,
+            @RequestParam String selectedMeal, @RequestParam String targetDate, @RequestParam(required = false) String targetMeal) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        LocalDate target = LocalDate.parse(targetDate);
+        int moved = foodLogService.moveMeal(user, LocalDate.parse(sourceDate), selectedMeal, target,
+                targetMeal != null ? targetMeal : selectedMeal);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("moved", moved);
+        response.put("dailyTotals", foodLogService.calculateDailyTotals(user, target));
+        return ResponseEntity.ok(response);
+    }
+
+    // Deletes every FoodLog entry of one meal on a specific date
+    @DeleteMapping("/meal")
+    public ResponseEntity<Map<String, Object>> deleteMeal(@RequestParam Long userId, @RequestParam String date,
+            @RequestParam String selectedMeal) {
+        User user = userService.getUserById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        int deleted = foodLogService.deleteMeal(user, LocalDate.parse(date), selectedMeal);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
+    }
+
     // Deletes a specific FoodLog entry by its ID
     @DeleteMapping("/{foodLogId}")
     public ResponseEntity<Void> deleteFoodLog(@PathVariable Long foodLogId) {
@@ -1,8 +1,11 @@
 package com.asmith.calmacro.controller;
 
+import com.asmith.calmacro.dto.PageResponse;
 import com.asmith.calmacro.dto.RecipeDTO;
 import com.asmith.calmacro.dto.RecipeItemDTO;
+import com.asmith.calmacro.dto.RecipeSummary;
 import com.asmith.calmacro.model.Recipe;
+import com.asmith.calmacro.service.RecipeNutritionVerifyJob;
 import com.asmith.calmacro.service.RecipeService;
 import com.asmith.calmacro.exception.ResourceNotFoundException;
 
@@ -11,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * RecipeController
@@ -25,6 +29,9 @@ public class RecipeController {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private RecipeNutritionVerifyJob recipeNutritionVerifyJob;
+
     // Adds a new recipe
     @PostMapping
     public ResponseEntity<Recipe> addRecipe(@RequestBody RecipeDTO recipeDTO) {
@@ -42,18 +49,8 @@ public class RecipeController {
     // Updates an existing recipe with the provided details
     @PutMapping("/{id}")
     public ResponseEntity<Recipe> updateRecipe(@PathVariable Long id, @RequestBody RecipeDTO recipeDTO) {
-        // Retrieve recipe by it's ID
-        Recipe existingRecipe = recipeService.findById(id);   
-
-        // Update with provided details
-        existingRecipe.setRecipeName(recipeDTO.getRecipeName());
-        existingRecipe.setDirection(recipeDTO.getDirection());
-        existingRecipe.setServingSize(recipeDTO.getServingSize());
-        existingRecipe.setState(recipeDTO.getState());
-        
-        // Save and return updated recipe
-        recipeService.save(existingRecipe);
-        return ResponseEntity.ok(existingRecipe);
+        Recipe updatedRecipe = recipeService.updateRecipeDetails(id, recipeDTO);
+        return ResponseEntity.ok(updatedRecipe);
     }
 
     // Adds a new item (ingredient) to an existing recipe
@@ -63,6 +60,20 @@ public class RecipeController {
         return ResponseEntity.ok(updatedRecipe);
     }
 
+    // Changes the food, quantity, or unit of an item (ingredient) in a recipe
+    @PutMapping("/{recipeId}/items/{recipeItemId}")
+    public ResponseEntity<Recipe> updateRecipeItem(@PathVariable Long recipeId, @PathVariable Long recipeItemId,
+                                                   @RequestBody RecipeItemDTO itemDTO) {
+        Recipe updatedRecipe = recipeService.updateRecipeItem(recipeId, recipeItemId, itemDTO);
+        return ResponseEntity.ok(updatedRecipe);
+    }
+
+    // Retrieves the result of the last check of recipe nutrient totals against their ingredients
+    @GetMapping("/nutrition/verify/status")
+    public ResponseEntity<Map<String, Object>> getNutritionVerifyStatus() {
+        return ResponseEntity.ok(recipeNutritionVerifyJob.getLastReport());
+    }
+
     // Retrieves a recipe by its ID
     @GetMapping("/{id}")
     public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id) {
@@ -77,10 +88,26 @@ public class RecipeController {
         return recipeService.getRecipesByUserId(userId);
     }
 
-    // Searches for recipes by their name and user ID
+    // Searches for recipes by their name and user ID, returning at most the limit. The fuzzy mode tolerates
+    // typos in each word of the name
     @GetMapping("/search")
-    public List<Recipe> getRecipesByRecipeNameAndUserId(@RequestParam String recipeName, @RequestParam Long userId) {
-        return recipeService.getRecipesByRecipeNameAndUserId(recipeName, userId);
+    public ResponseEntity<List<Recipe>> getRecipesByRecipeNameAndUserId(@RequestParam String recipeName, @RequestParam Long userId,
+                                                                        @RequestParam(defaultValue = "contains") String mode,
+                                                                        @RequestParam(defaultValue = "20") int limit) {
+        if (mode.equalsIgnoreCase("fuzzy")) {
+            return ResponseEntity.ok(recipeService.searchFuzzy(recipeName, userId, limit));
+        } else if (mode.equalsIgnoreCase("contains")) {
+            return ResponseEntity.ok(recipeService.getRecipesByRecipeNameAndUserId(recipeName, userId, limit));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Retrieves one page of slim summaries of a user's recipes whose names contain the search
+    @GetMapping("/search/paged")
+    public ResponseEntity<PageResponse<RecipeSummary>> searchRecipePage(@RequestParam String recipeName, @RequestParam Long userId,
+                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(recipeService.searchPage(recipeName, userId, page, size));
     }
 
     // Retrieves the first 20 recipes for a specific user
@@ -90,6 +117,13 @@ public class RecipeController {
         return ResponseEntity.ok(recipes);
     }
 
+    // Retrieves a user's most frequently logged recipes, weighted toward recent logs
+    @GetMapping("/frequent/user/{userId}")
+    public ResponseEntity<List<Recipe>> getFrequentRecipesForUser(@PathVariable Long userId,
+                                                                  @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recipeService.getFrequentRecipesForUser(userId, limit));
+    }
+
     // Removes an item (ingredient) from a specific recipe
     @DeleteMapping("/{recipeId}/items/{recipeItemId}")
     public ResponseEntity<Void> removeRecipeItem(@PathVariable Long recipeId, @PathVariable Long recipeItemId) {
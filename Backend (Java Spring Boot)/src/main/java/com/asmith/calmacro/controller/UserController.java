@@ -2,16 +2,19 @@ package com.asmith.calmacro.controller;
 
 import com.asmith.calmacro.model.ContactFormRequest;
 import com.asmith.calmacro.model.User;
+import com.asmith.calmacro.service.DayCloseOutService;
 import com.asmith.calmacro.service.UserService;
 import com.asmith.calmacro.util.JwtUtil;
 import com.asmith.calmacro.service.EmailService;
 import com.asmith.calmacro.dto.AuthResponse;
+import com.asmith.calmacro.dto.CheckInDTO;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 /**
@@ -34,6 +37,9 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private DayCloseOutService dayCloseOutService;
+
     // Registers a new user
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody User user) {
@@ -98,6 +104,15 @@ public class UserController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Records a user's daily check-in, updating the login streak and closing out the previous day's goals
+    @PostMapping("/{userId}/checkin")
+    public ResponseEntity<CheckInDTO> checkIn(@PathVariable Long userId, @RequestParam(required = false) LocalDate date) {
+        if (date == null) {
+            date = LocalDate.now();
+        }
+        return ResponseEntity.ok(dayCloseOutService.checkIn(userId, date));
+    }
+
     // Delete a user by their user ID
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
@@ -0,0 +1,80 @@
+package com.asmith.calmacro.dto;
+
+import java.time.LocalDate;
+
+/**
+ * CheckInDTO
+ * 
+ * Data Transfer Object returned when a user checks in for the day. Contains the user's
+ * current login streak and, when the check-in started a new day, the previous day that
+ * was closed out along with which goals were met on it.
+ */
+
+public class CheckInDTO {
+    private Integer loginStreak;
+    private LocalDate closedDate;
+    private boolean metCalorieGoal;
+    private boolean metCalMacGoal;
+    private boolean metWaterGoal;
+    private boolean metFiberGoal;
+    private boolean metAllGoals;
+
+
+    // Getters and setters
+
+    public Integer getLoginStreak() {
+        return loginStreak;
+    }
+
+    public void setLoginStreak(Integer loginStreak) {
+        this.loginStreak = loginStreak;
+    }
+
+    public LocalDate getClosedDate() {
+        return closedDate;
+    }
+
+    public void setClosedDate(LocalDate closedDate) {
+        this.closedDate = closedDate;
+    }
+
+    public boolean isMetCalorieGoal() {
+        return metCalorieGoal;
+    }
+
+    public void setMetCalorieGoal(boolean metCalorieGoal) {
+        this.metCalorieGoal = metCalorieGoal;
+    }
+
+    public boolean isMetCalMacGoal() {
+        return metCalMacGoal;
+    }
+
+    public void setMetCalMacGoal(boolean metCalMacGoal) {
+        this.metCalMacGoal = metCalMacGoal;
+    }
+
+    public boolean isMetWaterGoal() {
+        return metWaterGoal;
+    }
+
+    public void setMetWaterGoal(boolean metWaterGoal) {
+        this.metWaterGoal = metWaterGoal;
+    }
+
+    public boolean isMetFiberGoal() {
+        return metFiberGoal;
+    }
+
+    public void setMetFiberGoal(boolean metFiberGoal) {
+        this.metFiberGoal = metFiberGoal;
+    }
+
+    public boolean isMetAllGoals() {
+        return metAllGoals;
+    }
+
+    public void setMetAllGoals(boolean metAllGoals) {
+        this.metAllGoals = metAllGoals;
+    }
+}
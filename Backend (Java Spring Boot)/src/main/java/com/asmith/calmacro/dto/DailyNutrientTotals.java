@@ -0,0 +1,17 @@
+package com.asmith.calmacro.dto;
+
+import com.asmith.calmacro.model.NutrientProfile;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DailyNutrientTotals
+ *
+ * Projection holding the summed nutrient and water totals of a single logged day.
+ */
+
+public interface DailyNutrientTotals extends NutrientProfile {
+    LocalDate getLogDate();
+    BigDecimal getWater();
+}
@@ -0,0 +1,14 @@
+package com.asmith.calmacro.dto;
+
+/**
+ * FoodItemName
+ *
+ * Projection holding only what the food name index needs from a food item: its ID, its name,
+ * and the user who created it.
+ */
+
+public interface FoodItemName {
+    Long getId();
+    String getName();
+    Long getUserId();
+}
@@ -0,0 +1,24 @@
+package com.asmith.calmacro.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * FoodItemSummary
+ *
+ * Projection of the food item columns a search result list shows: its name, who created it,
+ * its serving, and its calories and macros. The remaining nutrients are read from the food
+ * item itself once it is opened.
+ */
+
+public interface FoodItemSummary {
+    Long getId();
+    String getName();
+    Long getUserId();
+    BigDecimal getServingSize();
+    String getServingSizeUnit();
+    String getServingText();
+    BigDecimal getCalories();
+    BigDecimal getProtein();
+    BigDecimal getCarbs();
+    BigDecimal getFat();
+}
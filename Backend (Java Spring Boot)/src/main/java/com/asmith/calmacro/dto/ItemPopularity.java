@@ -0,0 +1,13 @@
+package com.asmith.calmacro.dto;
+
+/**
+ * ItemPopularity
+ *
+ * Projection holding a food item's or recipe's popularity: the sum of every user's
+ * recency-weighted usage score for it.
+ */
+
+public interface ItemPopularity {
+    Long getItemId();
+    Double getPopularity();
+}
@@ -0,0 +1,14 @@
+package com.asmith.calmacro.dto;
+
+import java.time.LocalDate;
+
+/**
+ * LoggedDay
+ *
+ * Projection identifying a single day of a user's food log.
+ */
+
+public interface LoggedDay {
+    Long getUserId();
+    LocalDate getLogDate();
+}
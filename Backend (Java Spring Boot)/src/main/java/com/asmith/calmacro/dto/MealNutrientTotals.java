@@ -0,0 +1,18 @@
+package com.asmith.calmacro.dto;
+
+import com.asmith.calmacro.model.NutrientProfile;
+
+import java.math.BigDecimal;
+
+/**
+ * MealNutrientTotals
+ *
+ * Projection for one row of the daily nutrient aggregation query. Each row holds the summed
+ * nutrient values for a single meal type, or for the whole day when it is the rollup row.
+ */
+
+public interface MealNutrientTotals extends NutrientProfile {
+    String getSelectedMeal();
+    Integer getRollup();
+    BigDecimal getWater();
+}
@@ -0,0 +1,55 @@
+package com.asmith.calmacro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * NutrientTrendDTO
+ * 
+ * Data Transfer Object for one period of a nutrient trend (a day, week, or month).
+ * Contains the period's first and last date, how many days in it had logs, and the
+ * summed nutrient and water totals for the period.
+ */
+
+public class NutrientTrendDTO {
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private int daysLogged;
+    private Map<String, BigDecimal> totals;
+
+
+    // Getters and setters
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public void setPeriodEnd(LocalDate periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+
+    public int getDaysLogged() {
+        return daysLogged;
+    }
+
+    public void setDaysLogged(int daysLogged) {
+        this.daysLogged = daysLogged;
+    }
+
+    public Map<String, BigDecimal> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Map<String, BigDecimal> totals) {
+        this.totals = totals;
+    }
+}
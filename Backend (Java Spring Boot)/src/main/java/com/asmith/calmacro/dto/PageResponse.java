@@ -0,0 +1,62 @@
+package com.asmith.calmacro.dto;
+
+import java.util.List;
+
+/**
+ * PageResponse
+ * 
+ * Data Transfer Object for one page of a longer result list. Contains the page's entries
+ * along with its zero-based page number, the page size, and the total number of entries
+ * and pages, so clients can page through results without ever receiving all of them.
+ */
+
+public class PageResponse<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+
+    // Getters and setters
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+}
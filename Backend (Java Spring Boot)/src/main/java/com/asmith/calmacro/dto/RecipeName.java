@@ -0,0 +1,14 @@
+package com.asmith.calmacro.dto;
+
+/**
+ * RecipeName
+ *
+ * Projection holding only what the recipe name index needs from a recipe: its ID, its name,
+ * and the user who owns it.
+ */
+
+public interface RecipeName {
+    Long getId();
+    String getRecipeName();
+    Long getUserId();
+}
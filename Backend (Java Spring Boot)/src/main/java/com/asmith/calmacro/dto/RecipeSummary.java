@@ -0,0 +1,23 @@
+package com.asmith.calmacro.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * RecipeSummary
+ *
+ * Projection of the recipe columns a search result list shows: its name, owner, serving,
+ * total weight, and calories and macros, without its items or directions.
+ */
+
+public interface RecipeSummary {
+    Long getId();
+    String getRecipeName();
+    Long getUserId();
+    BigDecimal getServingSize();
+    String getServingSizeUnit();
+    BigDecimal getTotalWeight();
+    BigDecimal getCalories();
+    BigDecimal getProtein();
+    BigDecimal getCarbs();
+    BigDecimal getFat();
+}
@@ -0,0 +1,35 @@
+package com.asmith.calmacro.dto;
+
+import java.util.List;
+
+/**
+ * TimelinePageDTO
+ * 
+ * Data Transfer Object for one page of a user's food log timeline. Contains the page's
+ * entries, newest first, and the cursor to pass back for the next older page, which is
+ * null once the oldest entry has been returned.
+ */
+
+public class TimelinePageDTO {
+    private List<FoodLogDTO> entries;
+    private String nextCursor;
+
+
+    // Getters and setters
+
+    public List<FoodLogDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<FoodLogDTO> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.asmith.calmacro.external;
+
+import com.asmith.calmacro.model.FoodItem;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * FoodDatabaseProvider
+ *
+ * An external food database that food searches can be forwarded to. Implementations turn the
+ * database's results into unsaved food items with nutrients per gram, so callers never see the
+ * database's own format. The provider in use is chosen by name in configuration.
+ */
+
+public interface FoodDatabaseProvider {
+
+    // Name the provider is selected by in configuration, and part of every cache key for its results
+    String name();
+
+    // Searches the database, returning at most pageSize foods in the database's own order
+    List<FoodItem> search(String query, int pageSize) throws IOException, InterruptedException;
+}
@@ -0,0 +1,93 @@
+package com.asmith.calmacro.external;
+
+import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.util.FdcFoods;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UsdaFoodDatabaseProvider
+ *
+ * Searches USDA FoodData Central through its foods/search API. The base URL is configurable,
+ * so a local stub server answering the same path can stand in for the real API, and the API
+ * key stays on the server instead of in every app.
+ */
+
+@Component
+public class UsdaFoodDatabaseProvider implements FoodDatabaseProvider {
+
+    // Fields requested from the API; everything a food item is built from
+    private static final String FIELDS = "fdcId,description,brandName,gtinUpc,servingSize,servingSizeUnit,"
+            + "householdServingFullText,foodNutrients";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${calmacro.fdc.api.base-url:https://api.nal.usda.gov/fdc/v1}")
+    private String baseUrl;
+
+    @Value("${calmacro.fdc.api.key:DEMO_KEY}")
+    private String apiKey;
+
+    @Value("${calmacro.fdc.api.timeout:PT10S}")
+    private Duration timeout;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public String name() {
+        return "usda";
+    }
+
+    // Searches FoodData Central and converts each result into a food item
+    @Override
+    public List<FoodItem> search(String query, int pageSize) throws IOException, InterruptedException {
+        String url = baseUrl.replaceAll("/+$", "") + "/foods/search"
+                + "?api_key=" + encode(apiKey)
+                + "&query=" + encode(query)
+                + "&pageSize=" + pageSize
+                + "&fields=" + encode(FIELDS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("FoodData Central search returned status " + response.statusCode());
+        }
+
+        List<FoodItem> foods = new ArrayList<>();
+        JsonNode body = objectMapper.readTree(response.body());
+        for (JsonNode food : body.path("foods")) {
+            FoodItem item = FdcFoods.toFoodItem(food);
+            if (item != null) {
+                foods.add(item);
+            }
+        }
+        return foods;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
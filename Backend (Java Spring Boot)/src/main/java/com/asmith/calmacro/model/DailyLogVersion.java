@@ -0,0 +1,52 @@
+package com.asmith.calmacro.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * DailyLogVersion
+ * 
+ * Entity holding a version counter for one user's day. The counter is incremented by every write
+ * that changes the day's food logs, so clients can revalidate a day they already hold by comparing
+ * versions instead of reading the day again.
+ */
+
+@Entity
+@IdClass(DailyLogVersionId.class)
+public class DailyLogVersion {
+    @Id
+    private Long userId;
+    @Id
+    private LocalDate logDate;
+
+    @Column(nullable = false)
+    private Long version;
+
+
+    // Getters and setters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getLogDate() {
+        return logDate;
+    }
+
+    public void setLogDate(LocalDate logDate) {
+        this.logDate = logDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,44 @@
+package com.asmith.calmacro.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * DailyLogVersionId
+ * 
+ * Composite primary key of a DailyLogVersion: the user and the log date.
+ */
+
+public class DailyLogVersionId implements Serializable {
+    private Long userId;
+    private LocalDate logDate;
+
+    
+    // Default constructor
+    public DailyLogVersionId() {
+    }
+
+    // Constructs a key for the given user and date
+    public DailyLogVersionId(Long userId, LocalDate logDate) {
+        this.userId = userId;
+        this.logDate = logDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyLogVersionId)) {
+            return false;
+        }
+        DailyLogVersionId other = (DailyLogVersionId) o;
+        return Objects.equals(userId, other.userId) && Objects.equals(logDate, other.logDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, logDate);
+    }
+}
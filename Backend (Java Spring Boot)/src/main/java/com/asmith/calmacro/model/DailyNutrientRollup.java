@@ -0,0 +1,245 @@
+package com.asmith.calmacro.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DailyNutrientRollup
+ * 
+ * Entity holding the running nutrient totals for one meal of one user's day. Rows are kept
+ * up to date with deltas whenever a food log entry is written, so daily and per-meal totals
+ * can be read without re-aggregating the day's food logs.
+ */
+
+@Entity
+@IdClass(DailyNutrientRollupId.class)
+public class DailyNutrientRollup implements NutrientProfile {
+    @Id
+    private Long userId;
+    @Id
+    private LocalDate logDate;
+    @Id
+    private String selectedMeal;
+
+    private BigDecimal calories;
+    private BigDecimal protein;
+    private BigDecimal carbs;
+    private BigDecimal fat;
+    private BigDecimal totalSugars;
+    private BigDecimal addedSugars;
+    private BigDecimal transFat;
+    private BigDecimal saturatedFat;
+    private BigDecimal polyunsaturatedFat;
+    private BigDecimal monounsaturatedFat;
+    private BigDecimal cholesterol;
+    private BigDecimal fiber;
+    private BigDecimal calcium;
+    private BigDecimal iron;
+    private BigDecimal sodium;
+    private BigDecimal potassium;
+    private BigDecimal vitaminA;
+    private BigDecimal vitaminC;
+    private BigDecimal vitaminD;
+    private BigDecimal water;
+
+
+    // Default constructor
+    public DailyNutrientRollup() {
+    }
+
+    // Constructs an empty rollup for the given user, date, and meal
+    public DailyNutrientRollup(Long userId, LocalDate logDate, String selectedMeal) {
+        this.userId = userId;
+        this.logDate = logDate;
+        this.selectedMeal = selectedMeal;
+    }
+
+    
+    // Getters and setters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getLogDate() {
+        return logDate;
+    }
+
+    public void setLogDate(LocalDate logDate) {
+        this.logDate = logDate;
+    }
+
+    public String getSelectedMeal() {
+        return selectedMeal;
+    }
+
+    public void setSelectedMeal(String selectedMeal) {
+        this.selectedMeal = selectedMeal;
+    }
+
+    public BigDecimal getCalories() {
+        return calories;
+    }
+
+    public void setCalories(BigDecimal calories) {
+        this.calories = calories;
+    }
+
+    public BigDecimal getProtein() {
+        return protein;
+    }
+
+    public void setProtein(BigDecimal protein) {
+        this.protein = protein;
+    }
+
+    public BigDecimal getCarbs() {
+        return carbs;
+    }
+
+    public void setCarbs(BigDecimal carbs) {
+        this.carbs = carbs;
+    }
+
+    public BigDecimal getFat() {
+        return fat;
+    }
+
+    public void setFat(BigDecimal fat) {
+        this.fat = fat;
+    }
+
+    public BigDecimal getTotalSugars() {
+        return totalSugars;
+    }
+
+    public void setTotalSugars(BigDecimal totalSugars) {
+        this.totalSugars = totalSugars;
+    }
+
+    public BigDecimal getAddedSugars() {
+        return addedSugars;
+    }
+
+    public void setAddedSugars(BigDecimal addedSugars) {
+        this.addedSugars = addedSugars;
+    }
+
+    public BigDecimal getTransFat() {
+        return transFat;
+    }
+
+    public void setTransFat(BigDecimal transFat) {
+        this.transFat = transFat;
+    }
+
+    public BigDecimal getSaturatedFat() {
+        return saturatedFat;
+    }
+
+    public void setSaturatedFat(BigDecimal saturatedFat) {
+        this.saturatedFat = saturatedFat;
+    }
+
+    public BigDecimal getPolyunsaturatedFat() {
+        return polyunsaturatedFat;
+    }
+
+    public void setPolyunsaturatedFat(BigDecimal polyunsaturatedFat) {
+        this.polyunsaturatedFat = polyunsaturatedFat;
+    }
+
+    public BigDecimal getMonounsaturatedFat() {
+        return monounsaturatedFat;
+    }
+
+    public void setMonounsaturatedFat(BigDecimal monounsaturatedFat) {
+        this.monounsaturatedFat = monounsaturatedFat;
+    }
+
+    public BigDecimal getCholesterol() {
+        return cholesterol;
+    }
+
+    public void setCholesterol(BigDecimal cholesterol) {
+        this.cholesterol = cholesterol;
+    }
+
+    public BigDecimal getFiber() {
+        return fiber;
+    }
+
+    public void setFiber(BigDecimal fiber) {
+        this.fiber = fiber;
+    }
+
+    public BigDecimal getCalcium() {
+        return calcium;
+    }
+
+    public void setCalcium(BigDecimal calcium) {
+        this.calcium = calcium;
+    }
+
+    public BigDecimal getIron() {
+        return iron;
+    }
+
+    public void setIron(BigDecimal iron) {
+        this.iron = iron;
+    }
+
+    public BigDecimal getSodium() {
+        return sodium;
+    }
+
+    public void setSodium(BigDecimal sodium) {
+        this.sodium = sodium;
+    }
+
+    public BigDecimal getPotassium() {
+        return potassium;
+    }
+
+    public void setPotassium(BigDecimal potassium) {
+        this.potassium = potassium;
+    }
+
+    public BigDecimal getVitaminA() {
+        return vitaminA;
+    }
+
+    public void setVitaminA(BigDecimal vitaminA) {
+        this.vitaminA = vitaminA;
+    }
+
+    public BigDecimal getVitaminC() {
+        return vitaminC;
+    }
+
+    public void setVitaminC(BigDecimal vitaminC) {
+        this.vitaminC = vitaminC;
+    }
+
+    public BigDecimal getVitaminD() {
+        return vitaminD;
+    }
+
+    public void setVitaminD(BigDecimal vitaminD) {
+        this.vitaminD = vitaminD;
+    }
+
+    public BigDecimal getWater() {
+        return water;
+    }
+
+    public void setWater(BigDecimal water) {
+        this.water = water;
+    }
+}
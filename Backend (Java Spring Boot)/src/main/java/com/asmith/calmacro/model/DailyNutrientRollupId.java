@@ -0,0 +1,62 @@
+package com.asmith.calmacro.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * DailyNutrientRollupId
+ * 
+ * Composite primary key of a DailyNutrientRollup: the user, the log date, and the meal.
+ */
+
+public class DailyNutrientRollupId implements Serializable {
+    private Long userId;
+    private LocalDate logDate;
+    private String selectedMeal;
+
+    
+    // Default constructor
+    public DailyNutrientRollupId() {
+    }
+
+    // Constructs a key for the given user, date, and meal
+    public DailyNutrientRollupId(Long userId, LocalDate logDate, String selectedMeal) {
+        this.userId = userId;
+        this.logDate = logDate;
+        this.selectedMeal = selectedMeal;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getLogDate() {
+        return logDate;
+    }
+
+    public String getSelectedMeal() {
+        return selectedMeal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyNutrientRollupId)) {
+            return false;
+        }
+        DailyNutrientRollupId other = (DailyNutrientRollupId) o;
+        return Objects.equals(userId, other.userId)
+                && Objects.equals(logDate, other.logDate)
+                && Objects.equals(selectedMeal, other.selectedMeal);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, logDate, selectedMeal);
+    }
+}
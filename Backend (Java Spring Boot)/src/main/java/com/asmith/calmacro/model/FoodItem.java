@@ -8,10 +8,12 @@ import java.math.BigDecimal;
  * FoodItem
  * 
  * Entity representing a food item including detailed nutritional information.
+ * Foods imported from USDA FoodData Central also keep their FDC ID, and packaged
+ * foods their barcode.
  */
 
 @Entity
-public class FoodItem {
+public class FoodItem implements NutrientProfile {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -40,6 +42,8 @@ public class FoodItem {
     private BigDecimal potassium;
     private BigDecimal addedSugars;
     private BigDecimal vitaminD;
+    private Long fdcId;
+    private String barcode;
 
     
     // Getters and setters
@@ -251,4 +255,20 @@ public class FoodItem {
     public void setVitaminD(BigDecimal vitaminD) {
         this.vitaminD = vitaminD;
     }
+
+    public Long getFdcId() {
+        return fdcId;
+    }
+
+    public void setFdcId(Long fdcId) {
+        this.fdcId = fdcId;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
 }
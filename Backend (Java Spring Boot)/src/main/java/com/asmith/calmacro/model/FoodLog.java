@@ -1,5 +1,7 @@
 package com.asmith.calmacro.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
@@ -10,19 +12,39 @@ import java.time.LocalTime;
  * FoodLog
  * 
  * Entity representing a user's food log entry, including details about the food or recipe consumed,
- * quantity, date and time of consumption, and related metadata.
+ * quantity, date and time of consumption, and related metadata. The per-unit nutrient values of the
+ * food or recipe are copied onto the entry when it is logged, so later edits to the food or recipe
+ * do not change the entry and totals can be computed from this table alone. Associations are lazy, and
+ * each read that needs them fetches them in the same statement through one of the entity graphs below.
  */
 
 @Entity
-public class FoodLog {
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "FoodLog.foodAndRecipe", attributeNodes = {
+                @NamedAttributeNode("foodItem"),
+                @NamedAttributeNode("recipe")
+        }),
+        @NamedEntityGraph(name = "FoodLog.all", attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("foodItem"),
+                @NamedAttributeNode("recipe")
+        })
+})
+public class FoodLog implements NutrientProfile {
+    // Meal an entry is counted under when it was saved without one
+    public static final String DEFAULT_MEAL = "Snack";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User user;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private FoodItem foodItem;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Recipe recipe;
 
     private BigDecimal quantity;
@@ -33,6 +55,27 @@ public class FoodLog {
     private LocalTime logTime;
     private BigDecimal water;
 
+    // Per-unit nutrient values captured when the entry was logged
+    private BigDecimal calories;
+    private BigDecimal protein;
+    private BigDecimal carbs;
+    private BigDecimal fat;
+    private BigDecimal totalSugars;
+    private BigDecimal addedSugars;
+    private BigDecimal transFat;
+    private BigDecimal saturatedFat;
+    private BigDecimal polyunsaturatedFat;
+    private BigDecimal monounsaturatedFat;
+    private BigDecimal cholesterol;
+    private BigDecimal fiber;
+    private BigDecimal calcium;
+    private BigDecimal iron;
+    private BigDecimal sodium;
+    private BigDecimal potassium;
+    private BigDecimal vitaminA;
+    private BigDecimal vitaminC;
+    private BigDecimal vitaminD;
+
     
     // Getters and setters
     
@@ -123,4 +166,156 @@ public class FoodLog {
     public void setWater(BigDecimal water) {
         this.water = water;
     }
-}
\ No newline at end of file
+
+    public BigDecimal getCalories() {
+        return calories;
+    }
+
+    public void setCalories(BigDecimal calories) {
+        this.calories = calories;
+    }
+
+    public BigDecimal getProtein() {
+        return protein;
+    }
+
+    public void setProtein(BigDecimal protein) {
+        this.protein = protein;
+    }
+
+    public BigDecimal getCarbs() {
+        return carbs;
+    }
+
+    public void setCarbs(BigDecimal carbs) {
+        this.carbs = carbs;
+    }
+
+    public BigDecimal getFat() {
+        return fat;
+    }
+
+    public void setFat(BigDecimal fat) {
+        this.fat = fat;
+    }
+
+    public BigDecimal getTotalSugars() {
+        return totalSugars;
+    }
+
+    public void setTotalSugars(BigDecimal totalSugars) {
+        this.totalSugars = totalSugars;
+    }
+
+    public BigDecimal getAddedSugars() {
+        return addedSugars;
+    }
+
+    public void setAddedSugars(BigDecimal addedSugars) {
+        this.addedSugars = addedSugars;
+    }
+
+    public BigDecimal getTransFat() {
+        return transFat;
+    }
+
+    public void setTransFat(BigDecimal transFat) {
+        this.transFat = transFat;
+    }
+
+    public BigDecimal getSaturatedFat() {
+        return saturatedFat;
+    }
+
+    public void setSaturatedFat(BigDecimal saturatedFat) {
+        this.saturatedFat = saturatedFat;
+    }
+
+    public BigDecimal getPolyunsaturatedFat() {
+        return polyunsaturatedFat;
+    }
+
+    public void setPolyunsaturatedFat(BigDecimal polyunsaturatedFat) {
+        this.polyunsaturatedFat = polyunsaturatedFat;
+    }
+
+    public BigDecimal getMonounsaturatedFat() {
+        return monounsaturatedFat;
+    }
+
+    public void setMonounsaturatedFat(BigDecimal monounsaturatedFat) {
+        this.monounsaturatedFat = monounsaturatedFat;
+    }
+
+    public BigDecimal getCholesterol() {
+        return cholesterol;
+    }
+
+    public void setCholesterol(BigDecimal cholesterol) {
+        this.cholesterol = cholesterol;
+    }
+
+    public BigDecimal getFiber() {
+        return fiber;
+    }
+
+    public void setFiber(BigDecimal fiber) {
+        this.fiber = fiber;
+    }
+
+    public BigDecimal getCalcium() {
+        return calcium;
+    }
+
+    public void setCalcium(BigDecimal calcium) {
+        this.calcium = calcium;
+    }
+
+    public BigDecimal getIron() {
+        return iron;
+    }
+
+    public void setIron(BigDecimal iron) {
+        this.iron = iron;
+    }
+
+    public BigDecimal getSodium() {
+        return sodium;
+    }
+
+    public void setSodium(BigDecimal sodium) {
+        this.sodium = sodium;
+    }
+
+    public BigDecimal getPotassium() {
+        return potassium;
+    }
+
+    public void setPotassium(BigDecimal potassium) {
+        this.potassium = potassium;
+    }
+
+    public BigDecimal getVitaminA() {
+        return vitaminA;
+    }
+
+    public void setVitaminA(BigDecimal vitaminA) {
+        this.vitaminA = vitaminA;
+    }
+
+    public BigDecimal getVitaminC() {
+        return vitaminC;
+    }
+
+    public void setVitaminC(BigDecimal vitaminC) {
+        this.vitaminC = vitaminC;
+    }
+
+    public BigDecimal getVitaminD() {
+        return vitaminD;
+    }
+
+    public void setVitaminD(BigDecimal vitaminD) {
+        this.vitaminD = vitaminD;
+    }
+}
@@ -0,0 +1,82 @@
+package com.asmith.calmacro.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * FoodUsage
+ * 
+ * Entity holding how often and how recently a user has logged one food item or recipe. The score
+ * adds a weight for every log that doubles every half-life, so recent logs outweigh old ones and
+ * ranking a user's foods by score orders them by recency-weighted log frequency.
+ */
+
+@Entity
+@IdClass(FoodUsageId.class)
+public class FoodUsage {
+    @Id
+    private Long userId;
+    @Id
+    private String itemType;
+    @Id
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Double score;
+    @Column(nullable = false)
+    private Integer logCount;
+    @Column(nullable = false)
+    private LocalDate lastLogged;
+
+
+    // Getters and setters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Integer getLogCount() {
+        return logCount;
+    }
+
+    public void setLogCount(Integer logCount) {
+        this.logCount = logCount;
+    }
+
+    public LocalDate getLastLogged() {
+        return lastLogged;
+    }
+
+    public void setLastLogged(LocalDate lastLogged) {
+        this.lastLogged = lastLogged;
+    }
+}
@@ -0,0 +1,61 @@
+package com.asmith.calmacro.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * FoodUsageId
+ * 
+ * Composite primary key of a FoodUsage: the user, the kind of item, and the item's ID.
+ */
+
+public class FoodUsageId implements Serializable {
+    private Long userId;
+    private String itemType;
+    private Long itemId;
+
+    
+    // Default constructor
+    public FoodUsageId() {
+    }
+
+    // Constructs a key for the given user and item
+    public FoodUsageId(Long userId, String itemType, Long itemId) {
+        this.userId = userId;
+        this.itemType = itemType;
+        this.itemId = itemId;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FoodUsageId)) {
+            return false;
+        }
+        FoodUsageId other = (FoodUsageId) o;
+        return Objects.equals(userId, other.userId)
+                && Objects.equals(itemType, other.itemType)
+                && Objects.equals(itemId, other.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, itemType, itemId);
+    }
+}
@@ -0,0 +1,32 @@
+package com.asmith.calmacro.model;
+
+import java.math.BigDecimal;
+
+/**
+ * NutrientProfile
+ * 
+ * Common view of the nutrient values carried by food items and recipes, so totals
+ * can be accumulated without caring which kind of entry was logged.
+ */
+
+public interface NutrientProfile {
+    BigDecimal getCalories();
+    BigDecimal getProtein();
+    BigDecimal getCarbs();
+    BigDecimal getFat();
+    BigDecimal getTotalSugars();
+    BigDecimal getAddedSugars();
+    BigDecimal getTransFat();
+    BigDecimal getSaturatedFat();
+    BigDecimal getPolyunsaturatedFat();
+    BigDecimal getMonounsaturatedFat();
+    BigDecimal getCholesterol();
+    BigDecimal getFiber();
+    BigDecimal getCalcium();
+    BigDecimal getIron();
+    BigDecimal getSodium();
+    BigDecimal getPotassium();
+    BigDecimal getVitaminA();
+    BigDecimal getVitaminC();
+    BigDecimal getVitaminD();
+}
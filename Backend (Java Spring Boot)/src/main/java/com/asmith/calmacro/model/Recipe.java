@@ -14,7 +14,7 @@ import java.util.List;
  */
     
 @Entity
-public class Recipe {
+public class Recipe implements NutrientProfile {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
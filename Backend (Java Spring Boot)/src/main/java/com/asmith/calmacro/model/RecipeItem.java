@@ -18,7 +18,7 @@ public class RecipeItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long recipeItemId;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipe_id", nullable = false)
     @JsonBackReference
     private Recipe recipe;
@@ -40,6 +40,7 @@ public class User {
     private Integer loginStreak;
     private LocalDate lastCheckedDate;
     private String lastTotals;
+    private LocalDate lastClosedDate;
 
     private LocalDate metCalorieGoal;
     private LocalDate metCalMacGoal;
@@ -180,6 +181,14 @@ public class User {
         this.lastTotals = lastTotals;
     }
 
+    public LocalDate getLastClosedDate() {
+        return lastClosedDate;
+    }
+
+    public void setLastClosedDate(LocalDate lastClosedDate) {
+        this.lastClosedDate = lastClosedDate;
+    }
+
     public LocalDate getMetCalorieGoal() {
         return metCalorieGoal;
     }
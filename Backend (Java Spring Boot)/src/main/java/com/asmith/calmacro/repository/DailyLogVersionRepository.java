@@ -0,0 +1,62 @@
+package com.asmith.calmacro.repository;
+
+import com.asmith.calmacro.model.DailyLogVersion;
+import com.asmith.calmacro.model.DailyLogVersionId;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * DailyLogVersionRepository
+ * 
+ * Repository interface for managing DailyLogVersion entities.
+ * Provides a primary-key read of a day's version and atomic increments
+ * for a single day, every versioned day in a date range, or every day
+ * that logs a given food item or recipe.
+ */
+
+public interface DailyLogVersionRepository extends JpaRepository<DailyLogVersion, DailyLogVersionId> {
+
+    // Reads the version of a user's day
+    @Query("SELECT v.version FROM DailyLogVersion v WHERE v.userId = :userId AND v.logDate = :logDate")
+    Optional<Long> findVersion(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+
+    // Increments the version of a user's day, creating it at version 1 the first time the day is written
+    @Modifying
+    @Query(value = "INSERT INTO daily_log_version (user_id, log_date, version) VALUES (:userId, :logDate, 1) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void incrementVersion(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+
+    // Increments the version of every versioned day of a user within a date range
+    @Modifying
+    @Query("UPDATE DailyLogVersion v SET v.version = v.version + 1 " +
+            "WHERE v.userId = :userId AND v.logDate BETWEEN :startDate AND :endDate")
+    void incrementVersions(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                           @Param("endDate") LocalDate endDate);
+
+    // Increments the version of every day that logs the food item, creating versions for days that have none
+    @Modifying
+    @Query(value = "INSERT INTO daily_log_version (user_id, log_date, version) " +
+            "SELECT DISTINCT user_id, log_date, 1 FROM food_log " +
+            "WHERE food_item_id = :foodItemId AND user_id IS NOT NULL AND log_date IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void incrementVersionsForFoodItem(@Param("foodItemId") Long foodItemId);
+
+    // Increments the version of every day that logs the recipe, creating versions for days that have none
+    @Modifying
+    @Query(value = "INSERT INTO daily_log_version (user_id, log_date, version) " +
+            "SELECT DISTINCT user_id, log_date, 1 FROM food_log " +
+            "WHERE recipe_id = :recipeId AND user_id IS NOT NULL AND log_date IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void incrementVersionsForRecipe(@Param("recipeId") Long recipeId);
+
+    // Deletes all versions belonging to a user
+    @Modifying
+    @Query("DELETE FROM DailyLogVersion v WHERE v.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,107 @@
+package com.asmith.calmacro.repository;
+
+import com.asmith.calmacro.dto.DailyNutrientTotals;
+import com.asmith.calmacro.model.DailyNutrientRollup;
+import com.asmith.calmacro.model.DailyNutrientRollupId;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DailyNutrientRollupRepository
+ * 
+ * Repository interface for managing DailyNutrientRollup entities.
+ * Provides methods for reading a day's rollups, summing rollups per day over
+ * a date range, adding a delta to a single rollup row in one upsert, and
+ * clearing rollups before they are rebuilt.
+ */
+
+public interface DailyNutrientRollupRepository extends JpaRepository<DailyNutrientRollup, DailyNutrientRollupId> {
+    List<DailyNutrientRollup> findByUserIdAndLogDate(Long userId, LocalDate logDate);
+
+    // Sums the meal rollups of each day in a date range, one row per logged day
+    @Query("SELECT r.logDate AS logDate, " +
+            "SUM(r.calories) AS calories, " +
+            "SUM(r.protein) AS protein, " +
+            "SUM(r.carbs) AS carbs, " +
+            "SUM(r.fat) AS fat, " +
+            "SUM(r.totalSugars) AS totalSugars, " +
+            "SUM(r.addedSugars) AS addedSugars, " +
+            "SUM(r.transFat) AS transFat, " +
+            "SUM(r.saturatedFat) AS saturatedFat, " +
+            "SUM(r.polyunsaturatedFat) AS polyunsaturatedFat, " +
+            "SUM(r.monounsaturatedFat) AS monounsaturatedFat, " +
+            "SUM(r.cholesterol) AS cholesterol, " +
+            "SUM(r.fiber) AS fiber, " +
+            "SUM(r.calcium) AS calcium, " +
+            "SUM(r.iron) AS iron, " +
+            "SUM(r.sodium) AS sodium, " +
+            "SUM(r.potassium) AS potassium, " +
+            "SUM(r.vitaminA) AS vitaminA, " +
+            "SUM(r.vitaminC) AS vitaminC, " +
+            "SUM(r.vitaminD) AS vitaminD, " +
+            "SUM(r.water) AS water " +
+            "FROM DailyNutrientRollup r WHERE r.userId = :userId AND r.logDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.logDate ORDER BY r.logDate")
+    List<DailyNutrientTotals> sumByDay(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    // Adds a delta to a single meal's rollup, inserting the row when the meal has none yet. The insert and the
+    // update are one atomic statement, so concurrent deltas queue on the row's own lock instead of each taking
+    // a gap lock on the missing row and deadlocking when both go on to insert it
+    @Modifying(flushAutomatically = true)
+    @Query(value =
+            "INSERT INTO daily_nutrient_rollup (user_id, log_date, selected_meal, " +
+            "calories, protein, carbs, fat, total_sugars, added_sugars, trans_fat, saturated_fat, " +
+            "polyunsaturated_fat, monounsaturated_fat, cholesterol, fiber, calcium, iron, sodium, potassium, " +
+            "vitamin_a, vitamin_c, vitamin_d, water) " +
+            "VALUES (:#{#delta.userId}, :#{#delta.logDate}, :#{#delta.selectedMeal}, " +
+            ":#{#delta.calories}, :#{#delta.protein}, :#{#delta.carbs}, :#{#delta.fat}, " +
+            ":#{#delta.totalSugars}, :#{#delta.addedSugars}, :#{#delta.transFat}, :#{#delta.saturatedFat}, " +
+            ":#{#delta.polyunsaturatedFat}, :#{#delta.monounsaturatedFat}, :#{#delta.cholesterol}, :#{#delta.fiber}, " +
+            ":#{#delta.calcium}, :#{#delta.iron}, :#{#delta.sodium}, :#{#delta.potassium}, " +
+            ":#{#delta.vitaminA}, :#{#delta.vitaminC}, :#{#delta.vitaminD}, :#{#delta.water}) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "calories = COALESCE(calories, 0) + VALUES(calories), " +
+            "protein = COALESCE(protein, 0) + VALUES(protein), " +
+            "carbs = COALESCE(carbs, 0) + VALUES(carbs), " +
+            "fat = COALESCE(fat, 0) + VALUES(fat), " +
+            "total_sugars = COALESCE(total_sugars, 0) + VALUES(total_sugars), " +
+            "added_sugars = COALESCE(added_sugars, 0) + VALUES(added_sugars), " +
+            "trans_fat = COALESCE(trans_fat, 0) + VALUES(trans_fat), " +
+            "saturated_fat = COALESCE(saturated_fat, 0) + VALUES(saturated_fat), " +
+            "polyunsaturated_fat = COALESCE(polyunsaturated_fat, 0) + VALUES(polyunsaturated_fat), " +
+            "monounsaturated_fat = COALESCE(monounsaturated_fat, 0) + VALUES(monounsaturated_fat), " +
+            "cholesterol = COALESCE(cholesterol, 0) + VALUES(cholesterol), " +
+            "fiber = COALESCE(fiber, 0) + VALUES(fiber), " +
+            "calcium = COALESCE(calcium, 0) + VALUES(calcium), " +
+            "iron = COALESCE(iron, 0) + VALUES(iron), " +
+            "sodium = COALESCE(sodium, 0) + VALUES(sodium), " +
+            "potassium = COALESCE(potassium, 0) + VALUES(potassium), " +
+            "vitamin_a = COALESCE(vitamin_a, 0) + VALUES(vitamin_a), " +
+            "vitamin_c = COALESCE(vitamin_c, 0) + VALUES(vitamin_c), " +
+            "vitamin_d = COALESCE(vitamin_d, 0) + VALUES(vitamin_d), " +
+            "water = COALESCE(water, 0) + VALUES(water)", nativeQuery = true)
+    void addTotals(@Param("delta") DailyNutrientRollup delta);
+
+    // Deletes all rollups for a user's day
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyNutrientRollup r WHERE r.userId = :userId AND r.logDate = :logDate")
+    void deleteByUserIdAndLogDate(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+
+    // Deletes all rollups for a user within a date range
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyNutrientRollup r WHERE r.userId = :userId AND r.logDate BETWEEN :startDate AND :endDate")
+    void deleteByUserIdAndLogDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+
+    // Deletes all rollups belonging to a user
+    @Modifying
+    @Query("DELETE FROM DailyNutrientRollup r WHERE r.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,11 +1,21 @@
 package com.asmith.calmacro.repository;
 
+import com.asmith.calmacro.dto.FoodItemName;
+import com.asmith.calmacro.dto.FoodItemSummary;
 import com.asmith.calmacro.model.FoodItem;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * FoodItemRepository
@@ -13,12 +23,27 @@ import java.util.Optional;
  * Repository interface for accessing and managing FoodItem entities.
  * Provides methods for querying food items by name, user ID, and ID,
  * as well as for retrieving recent items and deleting items by user.
+ * Also streams the name of every food item for building the search index, reads
+ * slim summaries of food items for search result pages, and runs specification
+ * queries for searches the index cannot answer yet.
  */
 
-public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
+public interface FoodItemRepository extends JpaRepository<FoodItem, Long>, JpaSpecificationExecutor<FoodItem> {
     List<FoodItem> findByNameContainingIgnoreCase(String name);
+    List<FoodItemSummary> findByIdIn(Collection<Long> ids);
+    Optional<FoodItem> findByBarcode(String barcode);
+    Optional<FoodItem> findByFdcId(Long fdcId);
     List<FoodItem> findByUserId(Long userId);
     Optional<FoodItem> findById(long id);
     List<FoodItem> findTop20ByUserIdOrderByIdDesc(Long userId);
     void deleteByUserId(Long userId);
+
+    // Streams the ID, name, and owner of every food item. A fetch size of Integer.MIN_VALUE makes the
+    // MySQL driver hand rows over one at a time, so the whole catalog is never held in memory at once
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f.id AS id, f.name AS name, f.userId AS userId FROM FoodItem f")
+    Stream<FoodItemName> streamAllNames();
 }
@@ -1,11 +1,26 @@
 package com.asmith.calmacro.repository;
 
+import com.asmith.calmacro.dto.LoggedDay;
+import com.asmith.calmacro.dto.MealNutrientTotals;
 import com.asmith.calmacro.model.FoodLog;
 import com.asmith.calmacro.model.User;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * FoodLogRepository
@@ -13,15 +28,145 @@ import java.util.List;
  * Repository interface for accessing and managing FoodLog entries.
  * Provides query methods for retrieving logs by user, date ranges,
  * food item, recipe, and selected meal, as well as deletion methods
- * for food items and recipes.
+ * for food items and recipes. Each read fetches the associations it
+ * needs through an entity graph, so the number of statements does not
+ * grow with the number of entries returned. Also provides a native aggregation query
+ * that sums a day's nutrients per meal and for the whole day at once,
+ * a streaming read of a user's history for exports, set-based copy,
+ * move, and delete of a day's or meal's entries, and a keyset-paged
+ * timeline that reads a user's history newest first.
  */
 
 public interface FoodLogRepository extends JpaRepository<FoodLog, Long> {
+    // Day and meal lists are mapped to DTOs, which need the food item or recipe name but only the user's ID
+    @EntityGraph("FoodLog.foodAndRecipe")
     List<FoodLog> findByUserAndLogDate(User user, LocalDate logDate);
+    @EntityGraph("FoodLog.foodAndRecipe")
+    List<FoodLog> findByUserAndLogDateAndSelectedMeal(User user, LocalDate logDate, String selectedMeal);
+
+    // Range and food item reads return whole entities, so every association is serialized
+    @EntityGraph("FoodLog.all")
     List<FoodLog> findByUserAndLogDateBetween(User user, LocalDate startDate, LocalDate endDate);
+    @EntityGraph("FoodLog.all")
     List<FoodLog> findByFoodItemId(Long foodItemId);
     List<FoodLog> findByRecipeId(Long recipeId);
-    List<FoodLog> findByUserAndLogDateAndSelectedMeal(User user, LocalDate logDate, String selectedMeal);
+
+    // Reads the newest page of a user's timeline
+    @EntityGraph("FoodLog.foodAndRecipe")
+    @Query("SELECT f FROM FoodLog f WHERE f.user.id = :userId ORDER BY f.logDate DESC, f.logTime DESC, f.id DESC")
+    List<FoodLog> findTimeline(@Param("userId") Long userId, Pageable pageable);
+
+    // Reads the page of a user's timeline that follows the given entry, seeking past it on (logDate, logTime, id)
+    // so each page is an index range read no matter how far back it is
+    @EntityGraph("FoodLog.foodAndRecipe")
+    @Query("SELECT f FROM FoodLog f WHERE f.user.id = :userId AND f.logDate <= :logDate " +
+            "AND (f.logDate < :logDate OR f.logTime < :logTime OR (f.logTime = :logTime AND f.id < :id)) " +
+            "ORDER BY f.logDate DESC, f.logTime DESC, f.id DESC")
+    List<FoodLog> findTimelineBefore(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                                     @Param("logTime") LocalTime logTime, @Param("id") Long id, Pageable pageable);
+
+    // Finds a single log together with its food item
+    @EntityGraph(attributePaths = {"foodItem"})
+    Optional<FoodLog> findWithFoodItemById(Long id);
+
+    // Finds a single log together with its recipe and the recipe's items
+    @EntityGraph(attributePaths = {"recipe", "recipe.recipeItems"})
+    Optional<FoodLog> findWithRecipeById(Long id);
+
     void deleteByFoodItemId(Long foodItemId);
     void deleteByRecipeId(Long recipeId);
-}
\ No newline at end of file
+
+    // Streams a user's logs within a date range in log order. Every association is fetched in the same
+    // statement and a fetch size of Integer.MIN_VALUE makes the MySQL driver hand rows over one at a time
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM FoodLog f JOIN FETCH f.user LEFT JOIN FETCH f.foodItem LEFT JOIN FETCH f.recipe " +
+            "WHERE f.user.id = :userId AND f.logDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY f.logDate, f.logTime, f.id")
+    Stream<FoodLog> streamByUserIdAndLogDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+
+    // Finds the distinct dates a user logged anything within a date range
+    @Query("SELECT DISTINCT f.logDate FROM FoodLog f WHERE f.user.id = :userId AND f.logDate BETWEEN :startDate AND :endDate")
+    List<LocalDate> findLoggedDates(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    // Finds every user day that contains a log of the given food item
+    @Query("SELECT DISTINCT f.user.id AS userId, f.logDate AS logDate FROM FoodLog f WHERE f.foodItem.id = :foodItemId")
+    List<LoggedDay> findLoggedDaysByFoodItemId(@Param("foodItemId") Long foodItemId);
+
+    // Finds every user day that contains a log of the given recipe
+    @Query("SELECT DISTINCT f.user.id AS userId, f.logDate AS logDate FROM FoodLog f WHERE f.recipe.id = :recipeId")
+    List<LoggedDay> findLoggedDaysByRecipeId(@Param("recipeId") Long recipeId);
+
+    // Sums nutrients for a user's day grouped by meal, plus a rollup row (rollup = 1) holding the whole-day totals.
+    // Reads only the nutrient snapshots stored on food_log, so no food item or recipe rows are joined. Entries
+    // saved without a meal are counted under the default meal, as rollup rows always name one
+    @Query(value =
+            "SELECT COALESCE(f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "') AS selectedMeal, " +
+            "GROUPING(COALESCE(f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "')) AS rollup, " +
+            "COALESCE(SUM(f.calories * f.quantity), 0) AS calories, " +
+            "COALESCE(SUM(f.protein * f.quantity), 0) AS protein, " +
+            "COALESCE(SUM(f.carbs * f.quantity), 0) AS carbs, " +
+            "COALESCE(SUM(f.fat * f.quantity), 0) AS fat, " +
+            "COALESCE(SUM(f.total_sugars * f.quantity), 0) AS totalSugars, " +
+            "COALESCE(SUM(f.added_sugars * f.quantity), 0) AS addedSugars, " +
+            "COALESCE(SUM(f.trans_fat * f.quantity), 0) AS transFat, " +
+            "COALESCE(SUM(f.saturated_fat * f.quantity), 0) AS saturatedFat, " +
+            "COALESCE(SUM(f.polyunsaturated_fat * f.quantity), 0) AS polyunsaturatedFat, " +
+            "COALESCE(SUM(f.monounsaturated_fat * f.quantity), 0) AS monounsaturatedFat, " +
+            "COALESCE(SUM(f.cholesterol * f.quantity), 0) AS cholesterol, " +
+            "COALESCE(SUM(f.fiber * f.quantity), 0) AS fiber, " +
+            "COALESCE(SUM(f.calcium * f.quantity), 0) AS calcium, " +
+            "COALESCE(SUM(f.iron * f.quantity), 0) AS iron, " +
+            "COALESCE(SUM(f.sodium * f.quantity), 0) AS sodium, " +
+            "COALESCE(SUM(f.potassium * f.quantity), 0) AS potassium, " +
+            "COALESCE(SUM(f.vitamin_a * f.quantity), 0) AS vitaminA, " +
+            "COALESCE(SUM(f.vitamin_c * f.quantity), 0) AS vitaminC, " +
+            "COALESCE(SUM(f.vitamin_d * f.quantity), 0) AS vitaminD, " +
+            "COALESCE(SUM(f.water), 0) AS water " +
+            "FROM food_log f " +
+            "WHERE f.user_id = :userId AND f.log_date = :logDate " +
+            "GROUP BY COALESCE(f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "') WITH ROLLUP", nativeQuery = true)
+    List<MealNutrientTotals> sumNutrientsByMeal(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+
+    // Copies a user's logs from one day, or from one meal of it when selectedMeal is given, onto another day in a
+    // single statement. Copies keep their meal unless targetMeal is given, and keep their own nutrient snapshots.
+    // Logs saved without a meal belong to the default meal, and their copies are saved under it
+    @Modifying
+    @Query(value =
+            "INSERT INTO food_log (user_id, food_item_id, recipe_id, quantity, log_date, selected_meal, selected_unit, " +
+            "unit_quantity, log_time, water, calories, protein, carbs, fat, total_sugars, added_sugars, trans_fat, " +
+            "saturated_fat, polyunsaturated_fat, monounsaturated_fat, cholesterol, fiber, calcium, iron, sodium, " +
+            "potassium, vitamin_a, vitamin_c, vitamin_d) " +
+            "SELECT f.user_id, f.food_item_id, f.recipe_id, f.quantity, :targetDate, COALESCE(:targetMeal, f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "'), " +
+            "f.selected_unit, f.unit_quantity, f.log_time, f.water, f.calories, f.protein, f.carbs, f.fat, f.total_sugars, " +
+            "f.added_sugars, f.trans_fat, f.saturated_fat, f.polyunsaturated_fat, f.monounsaturated_fat, f.cholesterol, " +
+            "f.fiber, f.calcium, f.iron, f.sodium, f.potassium, f.vitamin_a, f.vitamin_c, f.vitamin_d " +
+            "FROM food_log f " +
+            "WHERE f.user_id = :userId AND f.log_date = :sourceDate " +
+            "AND (:selectedMeal IS NULL OR COALESCE(f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "') = :selectedMeal) " +
+            "ORDER BY f.id", nativeQuery = true)
+    int copyLogs(@Param("userId") Long userId, @Param("sourceDate") LocalDate sourceDate,
+                 @Param("selectedMeal") String selectedMeal, @Param("targetDate") LocalDate targetDate,
+                 @Param("targetMeal") String targetMeal);
+
+    // Moves every log of one meal of a user's day to another day and meal, including logs saved without a meal
+    // when the default meal is moved
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FoodLog f SET f.logDate = :targetDate, f.selectedMeal = :targetMeal " +
+            "WHERE f.user.id = :userId AND f.logDate = :sourceDate " +
+            "AND COALESCE(f.selectedMeal, '" + FoodLog.DEFAULT_MEAL + "') = :selectedMeal")
+    int moveMeal(@Param("userId") Long userId, @Param("sourceDate") LocalDate sourceDate,
+                 @Param("selectedMeal") String selectedMeal, @Param("targetDate") LocalDate targetDate,
+                 @Param("targetMeal") String targetMeal);
+
+    // Deletes every log of one meal of a user's day, including logs saved without a meal when the default meal is deleted
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM FoodLog f WHERE f.user.id = :userId AND f.logDate = :logDate " +
+            "AND COALESCE(f.selectedMeal, '" + FoodLog.DEFAULT_MEAL + "') = :selectedMeal")
+    int deleteMeal(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                   @Param("selectedMeal") String selectedMeal);
+}
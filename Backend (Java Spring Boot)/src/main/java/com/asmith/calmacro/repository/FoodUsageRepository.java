@@ -0,0 +1,83 @@
+package com.asmith.calmacro.repository;
+
+import com.asmith.calmacro.dto.ItemPopularity;
+import com.asmith.calmacro.model.FoodLog;
+import com.asmith.calmacro.model.FoodUsage;
+import com.asmith.calmacro.model.FoodUsageId;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * FoodUsageRepository
+ * 
+ * Repository interface for managing FoodUsage entities.
+ * Provides atomic score updates as foods are logged, a ranked read of a
+ * user's most used items of one kind, each item's popularity across all
+ * users, and cleanup when items or users are deleted.
+ */
+
+public interface FoodUsageRepository extends JpaRepository<FoodUsage, FoodUsageId> {
+
+    // Adds logs of one item to a user's usage, creating the usage row the first time the item is logged
+    @Modifying
+    @Query(value = "INSERT INTO food_usage (user_id, item_type, item_id, score, log_count, last_logged) " +
+            "VALUES (:userId, :itemType, :itemId, :weight, :logCount, :logDate) " +
+            "ON DUPLICATE KEY UPDATE score = score + VALUES(score), log_count = log_count + VALUES(log_count), " +
+            "last_logged = GREATEST(last_logged, VALUES(last_logged))", nativeQuery = true)
+    void recordUsage(@Param("userId") Long userId, @Param("itemType") String itemType, @Param("itemId") Long itemId,
+                     @Param("weight") double weight, @Param("logCount") int logCount, @Param("logDate") LocalDate logDate);
+
+    // Adds the items of a copied day or meal to a user's usage in a single statement, weighting each copy
+    // as a log on the target date
+    @Modifying
+    @Query(value = "INSERT INTO food_usage (user_id, item_type, item_id, score, log_count, last_logged) " +
+            "SELECT f.user_id, CASE WHEN f.food_item_id IS NOT NULL THEN 'FOOD' ELSE 'RECIPE' END, " +
+            "COALESCE(f.food_item_id, f.recipe_id), :weight * COUNT(*), COUNT(*), :targetDate " +
+            "FROM food_log f " +
+            "WHERE f.user_id = :userId AND f.log_date = :sourceDate " +
+            "AND (:selectedMeal IS NULL OR COALESCE(f.selected_meal, '" + FoodLog.DEFAULT_MEAL + "') = :selectedMeal) " +
+            "AND (f.food_item_id IS NOT NULL OR f.recipe_id IS NOT NULL) " +
+            "GROUP BY f.user_id, CASE WHEN f.food_item_id IS NOT NULL THEN 'FOOD' ELSE 'RECIPE' END, " +
+            "COALESCE(f.food_item_id, f.recipe_id) " +
+            "ON DUPLICATE KEY UPDATE score = score + VALUES(score), log_count = log_count + VALUES(log_count), " +
+            "last_logged = GREATEST(last_logged, VALUES(last_logged))", nativeQuery = true)
+    void recordCopiedUsage(@Param("userId") Long userId, @Param("sourceDate") LocalDate sourceDate,
+                           @Param("selectedMeal") String selectedMeal, @Param("targetDate") LocalDate targetDate,
+                           @Param("weight") double weight);
+
+    // Finds the IDs of a user's highest scoring items of one kind
+    @Query("SELECT u.itemId FROM FoodUsage u WHERE u.userId = :userId AND u.itemType = :itemType " +
+            "ORDER BY u.score DESC, u.lastLogged DESC")
+    List<Long> findTopItemIds(@Param("userId") Long userId, @Param("itemType") String itemType, Pageable pageable);
+
+    // Streams the summed usage score of every item of one kind across all users, one row at a time
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.itemId AS itemId, SUM(u.score) AS popularity FROM FoodUsage u " +
+            "WHERE u.itemType = :itemType GROUP BY u.itemId")
+    Stream<ItemPopularity> streamPopularity(@Param("itemType") String itemType);
+
+    // Deletes every user's usage of a deleted item
+    @Modifying
+    @Query("DELETE FROM FoodUsage u WHERE u.itemType = :itemType AND u.itemId = :itemId")
+    void deleteByItem(@Param("itemType") String itemType, @Param("itemId") Long itemId);
+
+    // Deletes all usage belonging to a user
+    @Modifying
+    @Query("DELETE FROM FoodUsage u WHERE u.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -4,14 +4,19 @@ import com.asmith.calmacro.model.Recipe;
 import com.asmith.calmacro.model.RecipeItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * RecipeItemRepository
  * 
  * Repository interface for managing RecipeItem entities.
- * Provides methods to delete recipe items by associated Recipe or recipe ID.
+ * Provides methods to delete recipe items by associated Recipe or recipe ID,
+ * and to load the items of many recipes at once.
  */
 
 public interface RecipeItemRepository extends JpaRepository<RecipeItem, Long> {
     void deleteByRecipe(Recipe recipe);
     void deleteByRecipeId(Long recipeId);
+    List<RecipeItem> findByRecipeIdIn(Collection<Long> recipeIds);
 }
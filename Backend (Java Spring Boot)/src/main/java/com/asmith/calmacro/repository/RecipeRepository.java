@@ -1,22 +1,58 @@
 package com.asmith.calmacro.repository;
 
+import com.asmith.calmacro.dto.RecipeName;
+import com.asmith.calmacro.dto.RecipeSummary;
 import com.asmith.calmacro.model.Recipe;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * RecipeRepository
  * 
  * Repository interface for managing Recipe entities.
- * Provides methods for querying and deleting recipes based on user ID and recipe name.
+ * Provides methods for querying and deleting recipes based on user ID and recipe name,
+ * streams the name of every recipe for building the search index, and reads slim
+ * summaries of recipes for search result pages. Recipe IDs can also be paged in order
+ * for background jobs, and a recipe can be read under a row lock before its totals change.
  */
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     List<Recipe> findByUserId(Long userId);
-    List<Recipe> findByRecipeNameContainingIgnoreCaseAndUserId(String recipeName, Long userId);
+    List<Recipe> findByRecipeNameContainingIgnoreCaseAndUserId(String recipeName, Long userId, Pageable pageable);
+    Page<RecipeSummary> findByUserIdAndRecipeNameContainingIgnoreCase(Long userId, String recipeName, Pageable pageable);
     List<Recipe> findTop20ByUserIdOrderByIdDesc(Long userId);
     void deleteByUserId(Long userId);
+
+    // Finds a recipe and locks its row until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Recipe r WHERE r.id = :id")
+    Optional<Recipe> findByIdForUpdate(@Param("id") Long id);
+
+    // Finds recipe IDs in order after the given ID
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Streams the ID, name, and owner of every recipe, one row at a time
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.id AS id, r.recipeName AS recipeName, r.userId AS userId FROM Recipe r")
+    Stream<RecipeName> streamAllNames();
 }
@@ -1,18 +1,23 @@
 package com.asmith.calmacro.repository;
 
 import com.asmith.calmacro.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * UserRepository
  * 
  * Repository interface for managing User entities.
- * Provides methods for user lookup, existence checks, and custom deletion of related food logs.
+ * Provides methods for user lookup, existence checks, and custom deletion of related food logs,
+ * as well as the atomic updates used to record daily check-ins and close out finished days.
  */
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -27,4 +32,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Modifying
     @Query("DELETE FROM FoodLog f WHERE f.user.id = :userId")
     void deleteFoodLogsByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Records a check-in for the given day, extending the login streak when the previous check-in was yesterday
+    // and resetting it otherwise. Only the first check-in of a day matches, so repeated views write nothing.
+    // The streak is assigned before lastCheckedDate because MySQL evaluates SET assignments left to right
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.loginStreak = CASE WHEN u.lastCheckedDate IS NULL THEN COALESCE(u.loginStreak, 1) " +
+            "WHEN u.lastCheckedDate = :yesterday THEN COALESCE(u.loginStreak, 0) + 1 ELSE 1 END, " +
+            "u.lastCheckedDate = :today " +
+            "WHERE u.id = :userId AND (u.lastCheckedDate IS NULL OR u.lastCheckedDate < :today)")
+    int recordCheckIn(@Param("userId") Long userId, @Param("today") LocalDate today, @Param("yesterday") LocalDate yesterday);
+
+    // Marks a day as closed out for a user. Returns 0 when the day or a later one was already closed,
+    // so each day's goals are counted exactly once no matter how many callers race to close it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.lastClosedDate = :day " +
+            "WHERE u.id = :userId AND (u.lastClosedDate IS NULL OR u.lastClosedDate < :day)")
+    int claimDayCloseOut(@Param("userId") Long userId, @Param("day") LocalDate day);
+
+    // Stamps each met goal with the closed day and increments its counter in a single statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET " +
+            "u.metCalorieGoal = CASE WHEN :calorie = true THEN :day ELSE u.metCalorieGoal END, " +
+            "u.metCalorieNum = CASE WHEN :calorie = true THEN COALESCE(u.metCalorieNum, 0) + 1 ELSE u.metCalorieNum END, " +
+            "u.metCalMacGoal = CASE WHEN :calMac = true THEN :day ELSE u.metCalMacGoal END, " +
+            "u.metCalMacNum = CASE WHEN :calMac = true THEN COALESCE(u.metCalMacNum, 0) + 1 ELSE u.metCalMacNum END, " +
+            "u.metWaterGoal = CASE WHEN :water = true THEN :day ELSE u.metWaterGoal END, " +
+            "u.metWaterNum = CASE WHEN :water = true THEN COALESCE(u.metWaterNum, 0) + 1 ELSE u.metWaterNum END, " +
+            "u.metFiberGoal = CASE WHEN :fiber = true THEN :day ELSE u.metFiberGoal END, " +
+            "u.metFiberNum = CASE WHEN :fiber = true THEN COALESCE(u.metFiberNum, 0) + 1 ELSE u.metFiberNum END, " +
+            "u.metAllGoals = CASE WHEN :all = true THEN :day ELSE u.metAllGoals END, " +
+            "u.metAllNum = CASE WHEN :all = true THEN COALESCE(u.metAllNum, 0) + 1 ELSE u.metAllNum END " +
+            "WHERE u.id = :userId")
+    int recordGoalsMet(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("calorie") boolean calorie,
+                       @Param("calMac") boolean calMac, @Param("water") boolean water, @Param("fiber") boolean fiber,
+                       @Param("all") boolean all);
+
+    // Finds, in ID order after the given ID, users whose last checked day has ended but was never closed out
+    @Query("SELECT u FROM User u WHERE u.id > :afterId AND u.lastCheckedDate < :cutoff " +
+            "AND (u.lastClosedDate IS NULL OR u.lastClosedDate < u.lastCheckedDate) ORDER BY u.id")
+    List<User> findUsersWithOpenDays(@Param("afterId") Long afterId, @Param("cutoff") LocalDate cutoff, Pageable pageable);
+}
@@ -0,0 +1,126 @@
+package com.asmith.calmacro.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Bm25Index
+ *
+ * Inverted index of stemmed terms that scores documents with Okapi BM25. Each term keeps the
+ * documents containing it with its frequency in each, and each document keeps its length, so
+ * a query only visits the posting lists of its own terms. The best hits are kept in a bounded
+ * heap, so no more than the requested number of results is ever sorted. The index is not
+ * thread-safe; its owner guards it.
+ */
+
+class Bm25Index {
+
+    // Term frequency saturation
+    private static final double K1 = 1.2;
+
+    // Strength of document length normalization
+    private static final double B = 0.75;
+
+    // Term frequencies of each document by term
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // Number of terms in each document
+    private final Map<Long, Integer> lengths = new HashMap<>();
+
+    private long totalLength;
+
+    // Indexes the terms of a document. The document must not already be indexed
+    void add(Long id, List<String> terms) {
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new HashMap<>(4)).merge(id, 1, Integer::sum);
+        }
+        lengths.put(id, terms.size());
+        totalLength += terms.size();
+    }
+
+    // Removes a document given the terms it was indexed with
+    void remove(Long id, List<String> terms) {
+        Integer length = lengths.remove(id);
+        if (length == null) {
+            return;
+        }
+        totalLength -= length;
+        for (String term : terms) {
+            Map<Long, Integer> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // Scores every document sharing a term with the query and returns the best, highest score first.
+    // The boost multiplies each document's score, so callers can favor some documents over others
+    List<Hit> search(List<String> queryTerms, int limit, ToDoubleFunction<Long> boost) {
+        if (lengths.isEmpty()) {
+            return List.of();
+        }
+        double documentCount = lengths.size();
+        double averageLength = (double) totalLength / lengths.size();
+
+        // Accumulate scores one term at a time; repeated query terms count once
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            Map<Long, Integer> documents = postings.get(term);
+            if (documents == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - documents.size() + 0.5) / (documents.size() + 0.5));
+            for (Map.Entry<Long, Integer> entry : documents.entrySet()) {
+                double tf = entry.getValue();
+                double norm = K1 * (1 - B + B * lengths.get(entry.getKey()) / averageLength);
+                scores.merge(entry.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+
+        // Keep only the best hits in a min-heap, ties going to the lower ID
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.ORDER.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.add(new Hit(entry.getKey(), entry.getValue() * boost.applyAsDouble(entry.getKey())));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        Collections.sort(hits, Hit.ORDER);
+        return hits;
+    }
+
+    // A scored document
+    static class Hit {
+        // Highest score first, then lowest ID
+        static final Comparator<Hit> ORDER = Comparator
+                .comparingDouble((Hit hit) -> -hit.score)
+                .thenComparing(hit -> hit.id);
+
+        private final Long id;
+        private final double score;
+
+        Hit(Long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.asmith.calmacro.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FoodFuzzyIndex
+ *
+ * Trigram index of the words of food item names, for search that tolerates a few typos in
+ * each word of the query.
+ */
+
+@Component
+class FoodFuzzyIndex implements FoodSearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Override
+    public void put(Long id, String name, Long userId, double popularity) {
+        lock.writeLock().lock();
+        try {
+            index.put(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Finds the IDs of the food items whose names match every word of the query within a few typos,
+    // closest matches first
+    List<Long> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit, id -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
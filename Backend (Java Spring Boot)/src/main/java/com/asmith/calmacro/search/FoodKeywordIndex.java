@@ -0,0 +1,194 @@
+package com.asmith.calmacro.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FoodKeywordIndex
+ *
+ * Inverted index of the whitespace-separated tokens of food item names. Names are lower-cased
+ * and split into tokens, and each token keeps a posting list of the food items whose names
+ * contain it. Every suffix of every token is kept in a sorted map, so the tokens containing a
+ * keyword are found with one range read over the suffixes that start with it. A keyword without
+ * whitespace can only occur inside a single token, so matching keywords against tokens gives
+ * exactly the same results as a substring search over the whole name.
+ */
+
+@Component
+class FoodKeywordIndex implements FoodSearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Tokens of each indexed food item
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+
+    // Food item IDs by the tokens of their names
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    // Tokens by each of their suffixes
+    private final TreeMap<String, Set<String>> suffixes = new TreeMap<>();
+
+    @Override
+    public void put(Long id, String name, Long userId, double popularity) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            Set<String> tokens = tokenize(name);
+            documents.put(id, tokens);
+            for (String token : tokens) {
+                Set<Long> ids = postings.get(token);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    postings.put(token, ids);
+                    addSuffixes(token);
+                }
+                ids.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Checks whether a food item is indexed
+    boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Finds the IDs of the food items whose names contain every keyword, in ascending ID order
+    List<Long> search(String[] keywords) {
+        lock.readLock().lock();
+        try {
+            // Collect the posting lists of each distinct keyword
+            List<Set<Long>> matches = new ArrayList<>();
+            for (String keyword : new HashSet<>(List.of(keywords))) {
+                if (keyword.isEmpty()) {
+                    continue;
+                }
+                Set<Long> ids = idsContaining(keyword);
+                if (ids.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(ids);
+            }
+            if (matches.isEmpty()) {
+                List<Long> all = new ArrayList<>(documents.keySet());
+                all.sort(null);
+                return all;
+            }
+
+            // Intersect starting from the shortest list, so the work is bounded by the rarest keyword
+            matches.sort(Comparator.comparingInt(Set::size));
+            List<Long> result = new ArrayList<>();
+            for (Long id : matches.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < matches.size() && inAll; i++) {
+                    inAll = matches.get(i).contains(id);
+                }
+                if (inAll) {
+                    result.add(id);
+                }
+            }
+            result.sort(null);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Collects the IDs of every food item with a token containing the keyword
+    private Set<Long> idsContaining(String keyword) {
+        Set<Long> ids = new HashSet<>();
+        for (Map.Entry<String, Set<String>> entry : suffixes.tailMap(keyword, true).entrySet()) {
+            if (!entry.getKey().startsWith(keyword)) {
+                break;
+            }
+            for (String token : entry.getValue()) {
+                ids.addAll(postings.get(token));
+            }
+        }
+        return ids;
+    }
+
+    // Drops a food item from the posting lists, and any token no other item uses. Callers hold the write lock
+    private void removeDocument(Long id) {
+        Set<String> tokens = documents.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+                removeSuffixes(token);
+            }
+        }
+    }
+
+    // Registers every suffix of a newly seen token
+    private void addSuffixes(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            suffixes.computeIfAbsent(token.substring(i), suffix -> new HashSet<>(2)).add(token);
+        }
+    }
+
+    // Unregisters every suffix of a token that is no longer used
+    private void removeSuffixes(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            String suffix = token.substring(i);
+            Set<String> tokens = suffixes.get(suffix);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    suffixes.remove(suffix);
+                }
+            }
+        }
+    }
+
+    // Splits a name into its distinct lower-case whitespace-separated tokens
+    private static Set<String> tokenize(String name) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : name.toLowerCase().split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,232 @@
+package com.asmith.calmacro.search;
+
+import com.asmith.calmacro.dto.FoodItemName;
+import com.asmith.calmacro.dto.ItemPopularity;
+import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.repository.FoodItemRepository;
+import com.asmith.calmacro.repository.FoodUsageRepository;
+import com.asmith.calmacro.service.FoodUsageService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * FoodNameIndex
+ *
+ * In-memory search over food item names, made of four separate indexes: keyword postings that
+ * find every name containing all the keywords, BM25 over stemmed terms for ranked search, word
+ * trigrams for typo-tolerant search, and a suggestion trie for autocomplete. Each index has its
+ * own lock, so a search only waits on changes to the index it reads. Changes pass through here
+ * one at a time, so every index sees them in the same order.
+ *
+ * The indexes together take roughly 1 to 2 KB of heap per indexed name, most of it in the keyword
+ * suffixes and the suggestion keys, so the number of indexed food items is capped by
+ * calmacro.search.food-index.max-items. When the catalog is larger, for example after a full
+ * FoodData Central import, the user-created and logged food items are indexed first and the rest
+ * only until the cap is reached. Ranked, fuzzy, and suggestion searches then cover the indexed
+ * items only, and keyword searches report the index as not ready so callers query the database.
+ */
+
+@Component
+public class FoodNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FoodNameIndex.class);
+
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+
+    @Autowired
+    private FoodUsageRepository foodUsageRepository;
+
+    @Autowired
+    private FoodKeywordIndex keywordIndex;
+
+    @Autowired
+    private FoodRankedIndex rankedIndex;
+
+    @Autowired
+    private FoodFuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private FoodSuggestionIndex suggestionIndex;
+
+    @Autowired
+    private List<FoodSearchIndex> indexes;
+
+    // Most food items held in the indexes
+    @Value("${calmacro.search.food-index.max-items:250000}")
+    private int maxItems;
+
+    // Creator of each indexed user-created food item, for removing a user's items
+    private final Map<Long, Long> owners = new HashMap<>();
+
+    private volatile boolean ready;
+
+    // Whether every food item fit under the cap
+    private volatile boolean complete = true;
+
+    // Loads food item names into the indexes once the application has started, and again after an import.
+    // Items already indexed are replaced in place, so a reload never holds two copies of the indexes
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        // Popularity is read first so each name enters the suggestion trie at its final rank
+        Map<Long, Double> popularity = new HashMap<>();
+        try (Stream<ItemPopularity> items = foodUsageRepository.streamPopularity(FoodUsageService.FOOD)) {
+            items.forEach(item -> popularity.put(item.getItemId(), item.getPopularity()));
+        }
+
+        // When the catalog is over the cap, the items people create and log go in before the rest
+        boolean fits = foodItemRepository.count() <= maxItems;
+        Predicate<FoodItemName> preferred = name -> name.getUserId() != null || popularity.containsKey(name.getId());
+        if (!fits) {
+            loadNames(preferred, popularity);
+        }
+        loadNames(fits ? name -> true : preferred.negate(), popularity);
+
+        complete = fits;
+        ready = true;
+        if (fits) {
+            logger.info("Indexed {} food item names", size());
+        } else {
+            logger.warn("Indexed {} food item names, the most allowed by calmacro.search.food-index.max-items; "
+                    + "keyword searches will read the database", size());
+        }
+    }
+
+    // Checks whether the indexes hold every food item and can answer keyword searches
+    public boolean isReady() {
+        return ready && complete;
+    }
+
+    // Returns the number of indexed food items
+    public int size() {
+        return keywordIndex.size();
+    }
+
+    // Adds a food item to the indexes, replacing its previous name if it was already indexed
+    public void put(FoodItem foodItem) {
+        put(foodItem.getId(), foodItem.getName(), foodItem.getUserId(), 0.0);
+    }
+
+    // Adds to a food item's popularity once the current transaction commits
+    public void addPopularity(Long foodItemId, double weight) {
+        afterCommit(() -> suggestionIndex.addPopularity(foodItemId, weight));
+    }
+
+    // Finds the IDs of the most popular food items with a word starting with the prefix, most popular first
+    public List<Long> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    // Reports the size and estimated memory of the suggestion trie
+    public Map<String, Number> suggestionStats() {
+        return suggestionIndex.stats();
+    }
+
+    // Removes a food item from the indexes once the current transaction commits
+    public void remove(Long foodItemId) {
+        afterCommit(() -> removeItem(foodItemId));
+    }
+
+    // Removes every food item created by a user once the current transaction commits
+    public void removeByUserId(Long userId) {
+        afterCommit(() -> {
+            List<Long> owned = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<Long, Long> entry : owners.entrySet()) {
+                    if (userId.equals(entry.getValue())) {
+                        owned.add(entry.getKey());
+                    }
+                }
+            }
+            owned.forEach(this::removeItem);
+        });
+    }
+
+    // Finds the IDs of the food items whose names contain every keyword, in ascending ID order
+    public List<Long> search(String[] keywords) {
+        return keywordIndex.search(keywords);
+    }
+
+    // Finds the IDs of the food items whose names best match the query, highest BM25 score first.
+    // Items created by the given user are boosted; the user may be null for no boost
+    public List<Long> rankedSearch(String query, Long userId, int limit) {
+        return rankedIndex.search(query, userId, limit);
+    }
+
+    // Finds the IDs of the food items whose names match every word of the query within a few typos,
+    // closest matches first
+    public List<Long> fuzzySearch(String query, int limit) {
+        return fuzzyIndex.search(query, limit);
+    }
+
+    // Indexes the streamed names accepted by the filter
+    private void loadNames(Predicate<FoodItemName> filter, Map<Long, Double> popularity) {
+        try (Stream<FoodItemName> names = foodItemRepository.streamAllNames()) {
+            names.filter(filter).forEach(name -> put(name.getId(), name.getName(), name.getUserId(),
+                    popularity.getOrDefault(name.getId(), 0.0)));
+        }
+    }
+
+    // Indexes a name under the given food item in every index, replacing whatever was indexed for it before.
+    // A new item is left out once the cap is reached, and the indexes are no longer complete
+    private synchronized void put(Long id, String name, Long userId, double popularity) {
+        if (id == null) {
+            return;
+        }
+        if (name == null) {
+            removeItem(id);
+            return;
+        }
+        if (!keywordIndex.contains(id) && keywordIndex.size() >= maxItems) {
+            complete = false;
+            return;
+        }
+        for (FoodSearchIndex index : indexes) {
+            index.put(id, name, userId, popularity);
+        }
+        if (userId != null) {
+            owners.put(id, userId);
+        } else {
+            owners.remove(id);
+        }
+    }
+
+    // Removes a food item from every index
+    private synchronized void removeItem(Long id) {
+        for (FoodSearchIndex index : indexes) {
+            index.remove(id);
+        }
+        owners.remove(id);
+    }
+
+    // Runs the action after the current transaction commits, or right away when there is none
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.asmith.calmacro.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FoodRankedIndex
+ *
+ * BM25 index of the stemmed terms of food item names, for ranked search. Food items created by
+ * the searching user score higher than the shared catalog, so the owner of each user-created
+ * item is kept alongside its terms; catalog items have no owner and cost nothing extra.
+ */
+
+@Component
+class FoodRankedIndex implements FoodSearchIndex {
+
+    // Score multiplier for food items created by the searching user
+    private static final double OWNER_BOOST = 1.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Stemmed terms of each indexed food item
+    private final Map<Long, List<String>> documents = new HashMap<>();
+
+    // Creator of each indexed food item that has one
+    private final Map<Long, Long> owners = new HashMap<>();
+
+    private final Bm25Index index = new Bm25Index();
+
+    @Override
+    public void put(Long id, String name, Long userId, double popularity) {
+        List<String> terms = Stemmer.terms(name);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, terms);
+            index.add(id, terms);
+            if (userId != null) {
+                owners.put(id, userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Finds the IDs of the food items whose names best match the query, highest BM25 score first.
+    // Items created by the given user are boosted; the user may be null for no boost
+    List<Long> search(String query, Long userId, int limit) {
+        List<String> terms = Stemmer.terms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Bm25Index.Hit hit : index.search(terms, limit, id -> isOwnedBy(id, userId) ? OWNER_BOOST : 1.0)) {
+                ids.add(hit.getId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Checks whether an indexed food item was created by the given user
+    private boolean isOwnedBy(Long id, Long userId) {
+        return userId != null && userId.equals(owners.get(id));
+    }
+
+    // Drops a food item's terms and owner. Callers hold the write lock
+    private void removeDocument(Long id) {
+        List<String> terms = documents.remove(id);
+        if (terms != null) {
+            index.remove(id, terms);
+        }
+        owners.remove(id);
+    }
+}
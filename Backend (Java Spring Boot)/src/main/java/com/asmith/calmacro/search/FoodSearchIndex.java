@@ -0,0 +1,22 @@
+package com.asmith.calmacro.search;
+
+/**
+ * FoodSearchIndex
+ *
+ * One in-memory index over food item names. Every index keeps its own structures behind its own
+ * lock, so a search of one never waits on an update of another. FoodNameIndex decides which food
+ * items are indexed and hands every index the same changes in the same order.
+ */
+
+interface FoodSearchIndex {
+
+    // Indexes a food item's name, replacing whatever was indexed for it before. The popularity is
+    // the item's logged usage, for indexes that rank by it
+    void put(Long id, String name, Long userId, double popularity);
+
+    // Removes a food item
+    void remove(Long id);
+
+    // Returns the number of indexed food items
+    int size();
+}
@@ -0,0 +1,127 @@
+package com.asmith.calmacro.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FoodSuggestionIndex
+ *
+ * Suggestion trie over food item names that completes a prefix from the start of any word with
+ * the items logged most across all users. Each name is added under one completion key per word,
+ * its words from that one onward, and keys are capped in count and length so a long name cannot
+ * grow the trie without bound.
+ */
+
+@Component
+class FoodSuggestionIndex implements FoodSearchIndex {
+
+    // Words of a name that start a suggestion key, and the longest key kept
+    private static final int MAX_SUGGESTION_WORDS = 8;
+    private static final int MAX_SUGGESTION_LENGTH = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Completion keys of each indexed food item
+    private final Map<Long, List<String>> documents = new HashMap<>();
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    // Reindexing an item keeps the popularity it has gathered since the index was loaded
+    @Override
+    public void put(Long id, String name, Long userId, double popularity) {
+        List<String> keys = suggestionKeys(name);
+        lock.writeLock().lock();
+        try {
+            double score = Math.max(popularity, trie.score(id));
+            removeDocument(id);
+            documents.put(id, keys);
+            trie.add(id, keys, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds to a food item's popularity, moving it up the completions of each of its keys
+    void addPopularity(Long id, double weight) {
+        lock.writeLock().lock();
+        try {
+            List<String> keys = documents.get(id);
+            if (keys != null) {
+                trie.increaseScore(id, keys, trie.score(id) + weight);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Finds the IDs of the most popular food items with a word starting with the prefix, most popular first
+    List<Long> suggest(String prefix, int limit) {
+        String key = String.join(" ", Stemmer.words(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.complete(key, Math.min(limit, SuggestionTrie.TOP_K));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reports the size and estimated memory of the trie
+    Map<String, Number> stats() {
+        lock.readLock().lock();
+        try {
+            return trie.stats();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Drops a food item from the trie. Callers hold the write lock
+    private void removeDocument(Long id) {
+        List<String> keys = documents.remove(id);
+        if (keys != null) {
+            trie.remove(id, keys);
+        }
+    }
+
+    // Builds the completion keys of a name: its words joined by spaces, starting from each word in turn
+    private static List<String> suggestionKeys(String name) {
+        List<String> words = Stemmer.words(name);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < words.size() && i < MAX_SUGGESTION_WORDS; i++) {
+            String key = String.join(" ", words.subList(i, words.size()));
+            keys.add(key.length() > MAX_SUGGESTION_LENGTH ? key.substring(0, MAX_SUGGESTION_LENGTH) : key);
+        }
+        return new ArrayList<>(keys);
+    }
+}
@@ -0,0 +1,144 @@
+package com.asmith.calmacro.search;
+
+import com.asmith.calmacro.dto.RecipeName;
+import com.asmith.calmacro.model.Recipe;
+import com.asmith.calmacro.repository.RecipeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * RecipeNameIndex
+ *
+ * In-memory trigram index over recipe names for typo-tolerant search. Recipes belong to the
+ * user who created them, so each indexed recipe remembers its owner and searches only return
+ * the searching user's recipes. Changes made inside a transaction are applied once it commits.
+ */
+
+@Component
+public class RecipeNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeNameIndex.class);
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Owner of each indexed recipe
+    private final Map<Long, Long> owners = new HashMap<>();
+
+    // Trigrams of every recipe name
+    private final TrigramIndex fuzzyIndex = new TrigramIndex();
+
+    // Loads every recipe name into the index once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<RecipeName> names = recipeRepository.streamAllNames()) {
+            names.forEach(name -> put(name.getId(), name.getRecipeName(), name.getUserId()));
+        }
+        lock.readLock().lock();
+        try {
+            logger.info("Indexed {} recipe names", owners.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds or reindexes a recipe once the current transaction commits
+    public void put(Recipe recipe) {
+        Long id = recipe.getId();
+        String name = recipe.getRecipeName();
+        Long userId = recipe.getUserId();
+        afterCommit(() -> put(id, name, userId));
+    }
+
+    // Removes a recipe from the index once the current transaction commits
+    public void remove(Long recipeId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                owners.remove(recipeId);
+                fuzzyIndex.remove(recipeId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Removes every recipe of a user once the current transaction commits
+    public void removeByUserId(Long userId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                List<Long> owned = new ArrayList<>();
+                for (Map.Entry<Long, Long> entry : owners.entrySet()) {
+                    if (userId.equals(entry.getValue())) {
+                        owned.add(entry.getKey());
+                    }
+                }
+                for (Long id : owned) {
+                    owners.remove(id);
+                    fuzzyIndex.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Finds the IDs of a user's recipes whose names match every word of the query within a few typos,
+    // closest matches first
+    public List<Long> fuzzySearch(String query, Long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            return fuzzyIndex.search(query, limit, id -> userId.equals(owners.get(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Indexes a recipe name under its owner, replacing whatever was indexed for it before
+    private void put(Long id, String name, Long userId) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            owners.put(id, userId);
+            fuzzyIndex.put(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Runs the action after the current transaction commits, or right away when there is none
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
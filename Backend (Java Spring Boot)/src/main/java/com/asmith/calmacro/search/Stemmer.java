@@ -0,0 +1,82 @@
+package com.asmith.calmacro.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stemmer
+ *
+ * Light English stemmer for food names. It folds plural forms onto their singular
+ * ("apples" to "apple", "tomatoes" to "tomato") and leaves everything else alone, since food
+ * names are short and aggressive suffix stripping merges unrelated foods. Words of three letters
+ * or fewer are never treated as plurals. Plurals in "-ies" come from singulars in either "-y"
+ * ("berry") or "-ie" ("cookie", "pie"), so both singular endings and the plural are reduced to
+ * a common "-i" root ("berri", "cooki", "pi").
+ */
+
+public final class Stemmer {
+
+    private Stemmer() {
+    }
+
+    // Splits text into lower-case letter and digit runs and stems each one
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            terms.add(stem(word));
+        }
+        return terms;
+    }
+
+    // Splits text into lower-case letter and digit runs
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Reduces a lower-case word to the root shared by its singular and plural forms
+    public static String stem(String word) {
+        String singular = singular(word);
+        int length = singular.length();
+        if (length >= 3 && singular.endsWith("ie")) {
+            return singular.substring(0, length - 1);
+        }
+        if (length >= 3 && singular.endsWith("y") && !isVowel(singular.charAt(length - 2))) {
+            return singular.substring(0, length - 1) + "i";
+        }
+        return singular;
+    }
+
+    // Strips the plural ending of a word. Words in "-ies" keep their "i", which stem folds the singulars onto
+    private static String singular(String word) {
+        int length = word.length();
+        if (length <= 3 || !word.endsWith("s")) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("oes")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("ches") || word.endsWith("shes") || word.endsWith("sses") || word.endsWith("xes")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("us") || word.endsWith("ss") || word.endsWith("is")) {
+            return word;
+        }
+        return word.substring(0, length - 1);
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
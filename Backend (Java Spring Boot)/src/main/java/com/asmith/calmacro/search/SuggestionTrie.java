@@ -0,0 +1,335 @@
+package com.asmith.calmacro.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SuggestionTrie
+ *
+ * Radix trie of completion keys where every node caches the IDs of the most popular items
+ * below it. A completion walks down the prefix and returns the cached list of the node it
+ * lands on, so its cost depends only on the prefix length, never on how many items share
+ * the prefix. Runs of single-child nodes are collapsed into one edge label, and cached lists
+ * only grow to the number of items actually below a node, which keeps the long tail of leaf
+ * nodes small. The trie is not thread-safe; its owner guards it.
+ */
+
+class SuggestionTrie {
+
+    // Number of items cached at each node, and so the most completions one lookup can return
+    static final int TOP_K = 10;
+
+    private static final long[] NO_IDS = new long[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // Rough object sizes on a 64-bit JVM with compressed references, for the memory estimate
+    private static final int NODE_BYTES = 32;
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_BYTES = 16;
+    private static final int SCORE_ENTRY_BYTES = 64;
+
+    private final Node root = new Node("");
+
+    // Popularity of every item in the trie
+    private final Map<Long, Double> scores = new HashMap<>();
+
+    private int keyCount;
+
+    // Most popular first, then lowest ID
+    private final Comparator<Long> order = Comparator
+            .comparingDouble((Long id) -> -scores.getOrDefault(id, 0.0))
+            .thenComparing(id -> id);
+
+    // Adds an item under each of its keys with the given popularity
+    void add(long id, List<String> keys, double score) {
+        scores.put(id, score);
+        for (String key : keys) {
+            insert(key, id);
+        }
+    }
+
+    // Removes an item from each of the keys it was added under
+    void remove(long id, List<String> keys) {
+        for (String key : keys) {
+            delete(key, id);
+        }
+        scores.remove(id);
+    }
+
+    // Returns an item's popularity, or zero if it is not in the trie
+    double score(long id) {
+        return scores.getOrDefault(id, 0.0);
+    }
+
+    // Raises an item's popularity and moves it up the cached lists along each of its keys
+    void increaseScore(long id, List<String> keys, double score) {
+        if (!scores.containsKey(id) || score < scores.get(id)) {
+            return;
+        }
+        scores.put(id, score);
+        for (String key : keys) {
+            Node node = root;
+            offer(node, id);
+            int i = 0;
+            while (i < key.length()) {
+                node = findChild(node, key.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                offer(node, id);
+                i += node.label.length();
+            }
+        }
+    }
+
+    // Returns the most popular items with a key starting with the prefix
+    List<Long> complete(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = findChild(node, prefix.charAt(i));
+            if (node == null) {
+                return List.of();
+            }
+            int length = Math.min(node.label.length(), prefix.length() - i);
+            if (!node.label.regionMatches(0, prefix, i, length)) {
+                return List.of();
+            }
+            i += length;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int j = 0; j < node.top.length && j < limit; j++) {
+            ids.add(node.top[j]);
+        }
+        return ids;
+    }
+
+    // Counts the nodes, keys, and items in the trie and estimates the memory they take
+    Map<String, Number> stats() {
+        long[] totals = new long[2];
+        measure(root, totals);
+
+        Map<String, Number> stats = new HashMap<>();
+        stats.put("nodes", totals[0]);
+        stats.put("keys", keyCount);
+        stats.put("items", scores.size());
+        stats.put("estimatedBytes", totals[1] + (long) scores.size() * SCORE_ENTRY_BYTES);
+        return stats;
+    }
+
+    // Adds an item under one key, splitting an edge where the key leaves it
+    private void insert(String key, long id) {
+        Node node = root;
+        offer(node, id);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = findChild(node, key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.ids = new long[] {id};
+                leaf.top = new long[] {id};
+                node.children = append(node.children, leaf);
+                keyCount++;
+                return;
+            }
+
+            int common = 1;
+            while (common < child.label.length() && i + common < key.length()
+                    && child.label.charAt(common) == key.charAt(i + common)) {
+                common++;
+            }
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                middle.top = child.top.clone();
+                replaceChild(node, child, middle);
+                child = middle;
+            }
+            offer(child, id);
+            node = child;
+            i += common;
+        }
+        if (!contains(node.ids, id)) {
+            node.ids = appendId(node.ids, id);
+            keyCount++;
+        }
+    }
+
+    // Removes an item from one key, pruning and merging the nodes left behind
+    private void delete(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = findChild(node, key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        if (!contains(node.ids, id)) {
+            return;
+        }
+        node.ids = removeId(node.ids, id);
+        keyCount--;
+
+        // Walk back up, dropping empty nodes and refreshing the cached lists that held the item
+        for (int j = path.size() - 1; j >= 0; j--) {
+            Node current = path.get(j);
+            if (j > 0 && current.ids.length == 0 && current.children.length == 0) {
+                removeChild(path.get(j - 1), current);
+                continue;
+            }
+            if (j > 0 && current.ids.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                current.label = current.label + only.label;
+                current.ids = only.ids;
+                current.children = only.children;
+                current.top = only.top;
+            }
+            if (contains(current.top, id)) {
+                recompute(current);
+            }
+        }
+    }
+
+    // Puts an item into a node's cached list if it ranks high enough, keeping the list in order
+    private void offer(Node node, long id) {
+        long[] top = node.top;
+        int position = indexOf(top, id);
+        if (position < 0) {
+            if (top.length < TOP_K) {
+                top = Arrays.copyOf(top, top.length + 1);
+            } else if (order.compare(id, top[top.length - 1]) >= 0) {
+                return;
+            }
+            position = top.length - 1;
+            top[position] = id;
+        }
+
+        // Move the item forward past every item it now outranks
+        while (position > 0 && order.compare(top[position], top[position - 1]) < 0) {
+            long swap = top[position - 1];
+            top[position - 1] = top[position];
+            top[position] = swap;
+            position--;
+        }
+        node.top = top;
+    }
+
+    // Rebuilds a node's cached list from its own items and its children's lists
+    private void recompute(Node node) {
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (long id : node.ids) {
+            candidates.add(id);
+        }
+        for (Node child : node.children) {
+            for (long id : child.top) {
+                candidates.add(id);
+            }
+        }
+        node.top = candidates.stream().sorted(order).limit(TOP_K).mapToLong(Long::longValue).toArray();
+    }
+
+    // Accumulates the node count and estimated bytes of a subtree
+    private void measure(Node node, long[] totals) {
+        totals[0]++;
+        totals[1] += NODE_BYTES + STRING_BYTES + ARRAY_BYTES + node.label.length()
+                + ARRAY_BYTES + 4L * node.children.length
+                + ARRAY_BYTES + 8L * node.ids.length
+                + ARRAY_BYTES + 8L * node.top.length;
+        for (Node child : node.children) {
+            measure(child, totals);
+        }
+    }
+
+    // Finds the child whose label starts with the given character
+    private Node findChild(Node node, char first) {
+        for (Node child : node.children) {
+            if (child.label.charAt(0) == first) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private void replaceChild(Node parent, Node oldChild, Node newChild) {
+        for (int i = 0; i < parent.children.length; i++) {
+            if (parent.children[i] == oldChild) {
+                parent.children[i] = newChild;
+                return;
+            }
+        }
+    }
+
+    private void removeChild(Node parent, Node child) {
+        Node[] remaining = new Node[parent.children.length - 1];
+        int j = 0;
+        for (Node existing : parent.children) {
+            if (existing != child) {
+                remaining[j++] = existing;
+            }
+        }
+        parent.children = remaining.length == 0 ? NO_CHILDREN : remaining;
+    }
+
+    private static Node[] append(Node[] nodes, Node node) {
+        Node[] grown = Arrays.copyOf(nodes, nodes.length + 1);
+        grown[nodes.length] = node;
+        return grown;
+    }
+
+    private static long[] appendId(long[] ids, long id) {
+        long[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static long[] removeId(long[] ids, long id) {
+        if (ids.length == 1) {
+            return NO_IDS;
+        }
+        long[] remaining = new long[ids.length - 1];
+        int j = 0;
+        for (long existing : ids) {
+            if (existing != id) {
+                remaining[j++] = existing;
+            }
+        }
+        return remaining;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        return indexOf(ids, id) >= 0;
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // An edge label together with the items ending at it, its children, and its cached best items
+    private static class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private long[] ids = NO_IDS;
+        private long[] top = NO_IDS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.asmith.calmacro.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * TrigramIndex
+ *
+ * Typo-tolerant index of the words in document names. Every distinct word is broken into
+ * padded trigrams, and each trigram keeps the words containing it. A query word only visits
+ * the words sharing its trigrams, and a word within k edits of the query must share all but
+ * at most 3k of the query's distinct trigrams, so most candidates are pruned by a count before
+ * the edit distance is computed. The distance itself is computed within a band of width k and
+ * stops as soon as it exceeds k. The index is not thread-safe; its owner guards it.
+ */
+
+class TrigramIndex {
+
+    // Words of each document
+    private final Map<Long, Set<String>> documents = new HashMap<>();
+
+    // Documents containing each word
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    // Words containing each trigram
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    // Indexes the words of a document's name, replacing whatever was indexed for it before
+    void put(Long id, String name) {
+        remove(id);
+        Set<String> words = new HashSet<>(Stemmer.words(name));
+        if (words.isEmpty()) {
+            return;
+        }
+        documents.put(id, words);
+        for (String word : words) {
+            Set<Long> ids = postings.get(word);
+            if (ids == null) {
+                ids = new HashSet<>(2);
+                postings.put(word, ids);
+                for (String trigram : trigramsOf(word)) {
+                    trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+                }
+            }
+            ids.add(id);
+        }
+    }
+
+    // Removes a document, and any word no other document uses
+    void remove(Long id) {
+        Set<String> words = documents.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> ids = postings.get(word);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(word);
+                for (String trigram : trigramsOf(word)) {
+                    Set<String> containing = trigrams.get(trigram);
+                    containing.remove(word);
+                    if (containing.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns the number of indexed documents
+    int size() {
+        return documents.size();
+    }
+
+    // Finds the documents in which every query word is within a few edits of some word, fewest total
+    // edits first. Only documents accepted by the filter are returned
+    List<Long> search(String query, int limit, LongPredicate filter) {
+        Set<String> queryWords = new LinkedHashSet<>(Stemmer.words(query));
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        // Fewest edits needed by each document for each query word
+        List<Map<Long, Integer>> matches = new ArrayList<>();
+        for (String queryWord : queryWords) {
+            Map<Long, Integer> distances = new HashMap<>();
+            for (Map.Entry<String, Integer> word : similarWords(queryWord).entrySet()) {
+                for (Long id : postings.get(word.getKey())) {
+                    distances.merge(id, word.getValue(), Math::min);
+                }
+            }
+            if (distances.isEmpty()) {
+                return List.of();
+            }
+            matches.add(distances);
+        }
+
+        // Keep the documents matching every query word, starting from the rarest
+        matches.sort(Comparator.comparingInt(Map::size));
+        Map<Long, Integer> totals = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : matches.get(0).entrySet()) {
+            if (!filter.test(entry.getKey())) {
+                continue;
+            }
+            int total = entry.getValue();
+            for (int i = 1; i < matches.size() && total >= 0; i++) {
+                Integer distance = matches.get(i).get(entry.getKey());
+                total = distance == null ? -1 : total + distance;
+            }
+            if (total >= 0) {
+                totals.put(entry.getKey(), total);
+            }
+        }
+
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Finds the indexed words within the allowed edit distance of a query word, with their distances
+    private Map<String, Integer> similarWords(String queryWord) {
+        int maxEdits = maxEdits(queryWord);
+        Map<String, Integer> similar = new HashMap<>();
+        if (maxEdits == 0) {
+            if (postings.containsKey(queryWord)) {
+                similar.put(queryWord, 0);
+            }
+            return similar;
+        }
+
+        // Count the trigrams each candidate shares with the query word
+        Set<String> queryTrigrams = trigramsOf(queryWord);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<String> words = trigrams.get(trigram);
+            if (words == null) {
+                continue;
+            }
+            for (String word : words) {
+                if (Math.abs(word.length() - queryWord.length()) <= maxEdits) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Verify only the candidates that share enough trigrams to be within reach
+        int minShared = Math.max(1, queryTrigrams.size() - 3 * maxEdits);
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() >= minShared) {
+                int distance = boundedDistance(queryWord, candidate.getKey(), maxEdits);
+                if (distance <= maxEdits) {
+                    similar.put(candidate.getKey(), distance);
+                }
+            }
+        }
+        return similar;
+    }
+
+    // Number of typos tolerated in a query word of the given length
+    private int maxEdits(String word) {
+        if (word.length() < 4) {
+            return 0;
+        }
+        return word.length() < 8 ? 1 : 2;
+    }
+
+    // Computes the Levenshtein distance between two words, or any value above max once it is exceeded
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            // Only cells within max of the diagonal can lead to a distance of max or less
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i;
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            int rowMin = from == 1 ? i : max + 1;
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, max + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = max + 1;
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // Breaks a word into its distinct trigrams, padded so the start and end of the word count too
+    private static Set<String> trigramsOf(String word) {
+        String padded = "$$" + word + "$$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
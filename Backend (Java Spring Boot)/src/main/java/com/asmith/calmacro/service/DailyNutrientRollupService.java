@@ -0,0 +1,308 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.dto.LoggedDay;
+import com.asmith.calmacro.dto.MealNutrientTotals;
+import com.asmith.calmacro.model.DailyNutrientRollup;
+import com.asmith.calmacro.model.DailyNutrientRollupId;
+import com.asmith.calmacro.model.FoodLog;
+import com.asmith.calmacro.repository.DailyLogVersionRepository;
+import com.asmith.calmacro.repository.DailyNutrientRollupRepository;
+import com.asmith.calmacro.repository.FoodLogRepository;
+import com.asmith.calmacro.util.NutrientTotals;
+import com.asmith.calmacro.util.NutrientVector;
+import com.asmith.calmacro.util.TtlCache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DailyNutrientRollupService
+ *
+ * This service maintains the per-meal nutrient rollups of each user's day. Food log writes apply
+ * their contribution as a delta inside the same transaction, as a single upsert on the meal's row,
+ * so reading a day's totals is a single primary-key range read no matter how many entries were
+ * logged. Rollups can also be rebuilt from the food logs themselves to repair drift. Each day's
+ * totals are cached by user and date, and every write evicts the days it touched once it commits and
+ * increments their version, which clients use to revalidate a day they already hold.
+ */
+
+@Service
+public class DailyNutrientRollupService {
+
+    @Autowired
+    private DailyNutrientRollupRepository rollupRepository;
+
+    @Autowired
+    private FoodLogRepository foodLogRepository;
+
+    @Autowired
+    private DailyLogVersionRepository versionRepository;
+
+    // Meal types broken out in the per-meal totals
+    private static final List<String> MEAL_TYPES = List.of("Breakfast", "Lunch", "Dinner", "Snack");
+
+    // Cached totals of recently read days, keyed by user ID and date
+    private final TtlCache<String, DaySummary> dailySummaryCache;
+
+    // Constructor to size the daily totals cache from configuration
+    public DailyNutrientRollupService(@Value("${calmacro.cache.daily-totals.max-size:10000}") int cacheMaxSize,
+                                      @Value("${calmacro.cache.daily-totals.ttl:PT10M}") Duration cacheTtl) {
+        this.dailySummaryCache = new TtlCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    // Adds a food log's nutrients and water to its day's rollup
+    @Transactional
+    public void addLog(FoodLog foodLog) {
+        applyDelta(foodLog.getUser().getId(), foodLog.getLogDate(), mealOf(foodLog), contributionOf(foodLog), BigDecimal.ONE);
+    }
+
+    // Removes a food log's nutrients and water from its day's rollup
+    @Transactional
+    public void removeLog(FoodLog foodLog) {
+        applyDelta(foodLog.getUser().getId(), foodLog.getLogDate(), mealOf(foodLog), contributionOf(foodLog), BigDecimal.ONE.negate());
+    }
+
+    // Adds many food logs to their rollups, applying one combined delta per user, day, and meal
+    @Transactional
+    public void addLogs(List<FoodLog> foodLogs) {
+        Map<DailyNutrientRollupId, NutrientTotals> deltas = new LinkedHashMap<>();
+        for (FoodLog foodLog : foodLogs) {
+            DailyNutrientRollupId key = new DailyNutrientRollupId(foodLog.getUser().getId(), foodLog.getLogDate(), mealOf(foodLog));
+            deltas.computeIfAbsent(key, k -> new NutrientTotals()).add(contributionOf(foodLog), BigDecimal.ONE);
+        }
+        deltas.forEach((key, delta) -> applyDelta(key.getUserId(), key.getLogDate(), key.getSelectedMeal(), delta, BigDecimal.ONE));
+    }
+
+    // Applies a delta, multiplied by the given factor, to a single meal's rollup in one upsert
+    @Transactional
+    public void applyDelta(Long userId, LocalDate logDate, String selectedMeal, NutrientTotals delta, BigDecimal factor) {
+        DailyNutrientRollup change = new DailyNutrientRollup(userId, logDate, selectedMeal);
+        writeTotals(change, new NutrientTotals().add(delta, factor));
+        rollupRepository.addTotals(change);
+        markDayChanged(userId, logDate);
+    }
+
+    // Retrieves the whole-day totals for a user's day
+    public Map<String, BigDecimal> getDailyTotals(Long userId, LocalDate date) {
+        return getDaySummary(userId, date).dailyTotals;
+    }
+
+    // Retrieves the totals for each meal type of a user's day
+    public Map<String, Map<String, BigDecimal>> getMealTotals(Long userId, LocalDate date) {
+        return getDaySummary(userId, date).mealTotals;
+    }
+
+    // Retrieves both the whole-day and per-meal totals with a single read
+    public Map<String, Object> getDailySummary(Long userId, LocalDate date) {
+        DaySummary daySummary = getDaySummary(userId, date);
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("dailyTotals", daySummary.dailyTotals);
+        summary.put("dailyTotalsByMeal", daySummary.mealTotals);
+        return summary;
+    }
+
+    // Retrieves the version of a user's day, which is 0 until the day is first written
+    public long getDayVersion(Long userId, LocalDate date) {
+        return versionRepository.findVersion(userId, date).orElse(0L);
+    }
+
+    // Returns the hit, miss, and eviction counts of the daily totals cache
+    public Map<String, Number> getCacheStats() {
+        return dailySummaryCache.stats();
+    }
+
+    // Deletes every rollup of a user, used when their account is deleted
+    @Transactional
+    public void deleteUserRollups(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+        versionRepository.deleteByUserId(userId);
+        evictUser(userId);
+    }
+
+    // Increments the version of every day that logs a food item, after its name changes. Listed entries show
+    // the current name, so those days must revalidate even though their totals are unchanged
+    @Transactional
+    public void foodItemRenamed(Long foodItemId) {
+        versionRepository.incrementVersionsForFoodItem(foodItemId);
+    }
+
+    // Increments the version of every day that logs a recipe, after its name changes
+    @Transactional
+    public void recipeRenamed(Long recipeId) {
+        versionRepository.incrementVersionsForRecipe(recipeId);
+    }
+
+    // Rebuilds a user's day from its food logs using the aggregation query
+    @Transactional
+    public void rebuildDay(Long userId, LocalDate logDate) {
+        rollupRepository.deleteByUserIdAndLogDate(userId, logDate);
+        markDayChanged(userId, logDate);
+
+        for (MealNutrientTotals row : foodLogRepository.sumNutrientsByMeal(userId, logDate)) {
+            // The whole-day rollup row is derived from the meal rows when read
+            if (row.getRollup() != null && row.getRollup() == 1) {
+                continue;
+            }
+            DailyNutrientRollup rollup = new DailyNutrientRollup(userId, logDate, row.getSelectedMeal());
+            writeTotals(rollup, new NutrientTotals().addScaled(row, BigDecimal.ONE).addWater(row.getWater()));
+            rollupRepository.addTotals(rollup);
+        }
+    }
+
+    // Rebuilds every day of a user's log within a date range
+    @Transactional
+    public void rebuildRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        rollupRepository.deleteByUserIdAndLogDateBetween(userId, startDate, endDate);
+        versionRepository.incrementVersions(userId, startDate, endDate);
+        evictUser(userId);
+        for (LocalDate logDate : foodLogRepository.findLoggedDates(userId, startDate, endDate)) {
+            rebuildDay(userId, logDate);
+        }
+    }
+
+    // Rebuilds each of the given days, used after logs of a food item or recipe are deleted in bulk
+    @Transactional
+    public void rebuildDays(List<LoggedDay> days) {
+        for (LoggedDay day : days) {
+            rebuildDay(day.getUserId(), day.getLogDate());
+        }
+    }
+
+    // Returns a day's totals from the cache, reading the day's rollups only when it is missing or expired
+    private DaySummary getDaySummary(Long userId, LocalDate date) {
+        return dailySummaryCache.getOrLoad(cacheKey(userId, date), key -> {
+            List<DailyNutrientRollup> rollups = rollupRepository.findByUserIdAndLogDate(userId, date);
+
+            // Cached maps are shared between requests, so they are handed out read-only
+            Map<String, Map<String, BigDecimal>> mealTotals = new HashMap<>();
+            toMealTotals(rollups).forEach((meal, totals) -> mealTotals.put(meal, Collections.unmodifiableMap(totals)));
+            return new DaySummary(Collections.unmodifiableMap(toDailyTotals(rollups)), Collections.unmodifiableMap(mealTotals));
+        });
+    }
+
+    // Builds the cache key of a user's day
+    private String cacheKey(Long userId, LocalDate date) {
+        return userId + ":" + date;
+    }
+
+    // Increments a user's day version and evicts the day from the cache, now and again once the current
+    // transaction completes, so a read that raced the write cannot leave totals from before the commit in the cache
+    private void markDayChanged(Long userId, LocalDate date) {
+        versionRepository.incrementVersion(userId, date);
+
+        String key = cacheKey(userId, date);
+        dailySummaryCache.invalidate(key);
+        afterCompletion(() -> dailySummaryCache.invalidate(key));
+    }
+
+    // Evicts every cached day of a user, now and again once the current transaction completes
+    private void evictUser(Long userId) {
+        String prefix = userId + ":";
+        dailySummaryCache.invalidateIf(key -> key.startsWith(prefix));
+        afterCompletion(() -> dailySummaryCache.invalidateIf(key -> key.startsWith(prefix)));
+    }
+
+    // Runs an action after the current transaction commits or rolls back, if one is active
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    // Returns the meal whose rollup a food log counts toward
+    private String mealOf(FoodLog foodLog) {
+        return foodLog.getSelectedMeal() != null ? foodLog.getSelectedMeal() : FoodLog.DEFAULT_MEAL;
+    }
+
+    // Computes the nutrients and water a single food log contributes to its day
+    private NutrientTotals contributionOf(FoodLog foodLog) {
+        NutrientTotals contribution = new NutrientTotals();
+        if (foodLog.getQuantity() != null) {
+            // The entry's own nutrient snapshot, so later food or recipe edits cannot skew the delta
+            contribution.addScaled(foodLog, foodLog.getQuantity());
+        }
+        return contribution.addWater(foodLog.getWater());
+    }
+
+    // Sums the rollups of every meal, including water entries, into the whole-day totals
+    private Map<String, BigDecimal> toDailyTotals(List<DailyNutrientRollup> rollups) {
+        NutrientTotals totals = new NutrientTotals();
+        for (DailyNutrientRollup rollup : rollups) {
+            totals.addScaled(rollup, BigDecimal.ONE).addWater(rollup.getWater());
+        }
+        return totals.toMap();
+    }
+
+    // Maps the rollups onto each meal type, defaulting missing meals to zero
+    private Map<String, Map<String, BigDecimal>> toMealTotals(List<DailyNutrientRollup> rollups) {
+        Map<String, Map<String, BigDecimal>> mealTotals = new HashMap<>();
+        for (String mealType : MEAL_TYPES) {
+            mealTotals.put(mealType, new NutrientTotals().toMap());
+        }
+        for (DailyNutrientRollup rollup : rollups) {
+            if (mealTotals.containsKey(rollup.getSelectedMeal())) {
+                mealTotals.put(rollup.getSelectedMeal(), toTotals(rollup).toMap());
+            }
+        }
+        return mealTotals;
+    }
+
+    // Reads a rollup's stored totals
+    private NutrientTotals toTotals(DailyNutrientRollup rollup) {
+        return new NutrientTotals().addScaled(rollup, BigDecimal.ONE).addWater(rollup.getWater());
+    }
+
+    // Copies totals onto a rollup, rounded to the column scale
+    private void writeTotals(DailyNutrientRollup rollup, NutrientTotals totals) {
+        rollup.setCalories(totals.decimal(NutrientVector.CALORIES));
+        rollup.setProtein(totals.decimal(NutrientVector.PROTEIN));
+        rollup.setCarbs(totals.decimal(NutrientVector.CARBS));
+        rollup.setFat(totals.decimal(NutrientVector.FAT));
+        rollup.setTotalSugars(totals.decimal(NutrientVector.TOTAL_SUGARS));
+        rollup.setAddedSugars(totals.decimal(NutrientVector.ADDED_SUGARS));
+        rollup.setTransFat(totals.decimal(NutrientVector.TRANS_FAT));
+        rollup.setSaturatedFat(totals.decimal(NutrientVector.SATURATED_FAT));
+        rollup.setPolyunsaturatedFat(totals.decimal(NutrientVector.POLYUNSATURATED_FAT));
+        rollup.setMonounsaturatedFat(totals.decimal(NutrientVector.MONOUNSATURATED_FAT));
+        rollup.setCholesterol(totals.decimal(NutrientVector.CHOLESTEROL));
+        rollup.setFiber(totals.decimal(NutrientVector.FIBER));
+        rollup.setCalcium(totals.decimal(NutrientVector.CALCIUM));
+        rollup.setIron(totals.decimal(NutrientVector.IRON));
+        rollup.setSodium(totals.decimal(NutrientVector.SODIUM));
+        rollup.setPotassium(totals.decimal(NutrientVector.POTASSIUM));
+        rollup.setVitaminA(totals.decimal(NutrientVector.VITAMIN_A));
+        rollup.setVitaminC(totals.decimal(NutrientVector.VITAMIN_C));
+        rollup.setVitaminD(totals.decimal(NutrientVector.VITAMIN_D));
+        rollup.setWater(totals.decimal(NutrientVector.WATER));
+    }
+
+    // Whole-day and per-meal totals of one cached day
+    private static class DaySummary {
+        private final Map<String, BigDecimal> dailyTotals;
+        private final Map<String, Map<String, BigDecimal>> mealTotals;
+
+        private DaySummary(Map<String, BigDecimal> dailyTotals, Map<String, Map<String, BigDecimal>> mealTotals) {
+            this.dailyTotals = dailyTotals;
+            this.mealTotals = mealTotals;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.model.User;
+import com.asmith.calmacro.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DayCloseOutJob
+ * 
+ * Scheduled job that closes out the last checked day of users who have not opened the app since.
+ * Users are read in ID order one page at a time, and each day is closed in its own transaction,
+ * so the job's memory use and lock time stay small however many users there are.
+ */
+
+@Component
+public class DayCloseOutJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DayCloseOutJob.class);
+
+    // Number of users read per page
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DayCloseOutService dayCloseOutService;
+
+    // Closes out every open day that has ended in all time zones, shortly after midnight server time
+    @Scheduled(cron = "${calmacro.closeout.cron:0 15 0 * * *}")
+    public void closeOutFinishedDays() {
+        // Days before yesterday have ended everywhere; yesterday may still be in progress for some users
+        LocalDate cutoff = LocalDate.now().minusDays(1);
+        long afterId = 0L;
+        int closed = 0;
+
+        List<User> page = userRepository.findUsersWithOpenDays(afterId, cutoff, PageRequest.of(0, PAGE_SIZE));
+        while (!page.isEmpty()) {
+            for (User user : page) {
+                try {
+                    if (dayCloseOutService.closeOutDay(user, user.getLastCheckedDate())) {
+                        closed++;
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to close out day {} for user {}", user.getLastCheckedDate(), user.getId(), e);
+                }
+            }
+            afterId = page.get(page.size() - 1).getId();
+            page = userRepository.findUsersWithOpenDays(afterId, cutoff, PageRequest.of(0, PAGE_SIZE));
+        }
+        logger.info("Closed out {} user days", closed);
+    }
+}
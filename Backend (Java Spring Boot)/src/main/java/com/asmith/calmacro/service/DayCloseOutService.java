@@ -0,0 +1,124 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.dto.CheckInDTO;
+import com.asmith.calmacro.model.User;
+import com.asmith.calmacro.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DayCloseOutService
+ * 
+ * This service closes out a user's finished day by evaluating that day's totals against the user's
+ * goals and recording which goals were met, and keeps the daily login streak. Every write is a single
+ * conditional update, so a day is counted exactly once even when a check-in and the nightly job race.
+ */
+
+@Service
+public class DayCloseOutService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DailyNutrientRollupService rollupService;
+
+    // Milliliters in a fluid ounce, since water is logged in ounces but the goal is stored in milliliters
+    private static final double ML_PER_FL_OZ = 29.5735;
+
+    // Records a user's check-in for the given day, closing out the previous checked day when a new day has started
+    @Transactional
+    public CheckInDTO checkIn(Long userId, LocalDate today) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        LocalDate previousDate = user.getLastCheckedDate();
+
+        CheckInDTO checkIn = new CheckInDTO();
+        if (previousDate != null && previousDate.isBefore(today)) {
+            closeOutDay(user, previousDate);
+            checkIn.setClosedDate(previousDate);
+        }
+        userRepository.recordCheckIn(userId, today, today.minusDays(1));
+
+        // Re-read the user so the response reflects both updates, whoever applied them
+        User updatedUser = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        checkIn.setLoginStreak(updatedUser.getLoginStreak());
+        if (checkIn.getClosedDate() != null) {
+            LocalDate closedDate = checkIn.getClosedDate();
+            checkIn.setMetCalorieGoal(closedDate.equals(updatedUser.getMetCalorieGoal()));
+            checkIn.setMetCalMacGoal(closedDate.equals(updatedUser.getMetCalMacGoal()));
+            checkIn.setMetWaterGoal(closedDate.equals(updatedUser.getMetWaterGoal()));
+            checkIn.setMetFiberGoal(closedDate.equals(updatedUser.getMetFiberGoal()));
+            checkIn.setMetAllGoals(closedDate.equals(updatedUser.getMetAllGoals()));
+        }
+        return checkIn;
+    }
+
+    // Evaluates a finished day against the user's goals and records the goals met, unless the day was already closed
+    @Transactional
+    public boolean closeOutDay(User user, LocalDate day) {
+        if (userRepository.claimDayCloseOut(user.getId(), day) == 0) {
+            return false;
+        }
+
+        Map<String, BigDecimal> totals = rollupService.getDailyTotals(user.getId(), day);
+
+        boolean calories = within(totals.get("calories"), user.getDailyCalorieGoal(), 0.95, 1.05);
+        boolean protein = within(totals.get("protein"), user.getDailyProteinGoal(), 0.95, 1.05);
+        boolean carbs = within(totals.get("carbs"), user.getDailyCarbsGoal(), 0.95, 1.05);
+        boolean fat = within(totals.get("fat"), user.getDailyFatGoal(), 0.95, 1.05);
+        boolean fiber = within(totals.get("fiber"), user.getFiber(), 0.95, 2.0);
+        boolean water = user.getWater() != null
+                && value(totals.get("water")) * ML_PER_FL_OZ >= user.getWater() * 0.95;
+
+        boolean calMac = calories && protein && carbs && fat;
+        boolean all = calMac && fiber && water
+                && within(totals.get("totalSugars"), user.getTotalSugars(), 0.5, 1.5)
+                && atMost(totals.get("addedSugars"), user.getAddedSugars())
+                && atMost(totals.get("transFat"), user.getTransFat())
+                && atMost(totals.get("saturatedFat"), user.getSaturatedFat())
+                && within(totals.get("polyunsaturatedFat"), user.getPolyunsaturatedFat(), 0.85, 1.2)
+                && within(totals.get("monounsaturatedFat"), user.getMonounsaturatedFat(), 0.85, 1.2)
+                && atMost(totals.get("cholesterol"), user.getCholesterol())
+                && within(totals.get("calcium"), user.getCalcium(), 0.8, 1.2)
+                && within(totals.get("iron"), user.getIron(), 0.9, 1.25)
+                && within(totals.get("sodium"), user.getSodium(), 0.25, 1.0)
+                && within(totals.get("potassium"), user.getPotassium(), 0.85, 1.2)
+                && within(totals.get("vitaminA"), user.getVitaminA(), 0.8, 1.2)
+                && within(totals.get("vitaminC"), user.getVitaminC(), 0.8, 2.0)
+                && within(totals.get("vitaminD"), user.getVitaminD(), 0.8, 1.2);
+
+        if (calories || calMac || water || fiber || all) {
+            userRepository.recordGoalsMet(user.getId(), day, calories, calMac, water, fiber, all);
+        }
+        return true;
+    }
+
+    // Checks whether a total falls between the given fractions of its goal; a missing goal is never met
+    private boolean within(BigDecimal total, Integer goal, double low, double high) {
+        if (goal == null) {
+            return false;
+        }
+        double amount = value(total);
+        return amount >= goal * low && amount <= goal * high;
+    }
+
+    // Checks whether a total stays at or under its goal; a missing goal is never met
+    private boolean atMost(BigDecimal total, Integer goal) {
+        return goal != null && value(total) <= goal;
+    }
+
+    // Treats a missing total as zero
+    private double value(BigDecimal total) {
+        return total != null ? total.doubleValue() : 0.0;
+    }
+}
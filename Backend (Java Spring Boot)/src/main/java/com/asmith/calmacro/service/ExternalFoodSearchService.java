@@ -0,0 +1,164 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.external.FoodDatabaseProvider;
+import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.util.DiskLruCache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ExternalFoodSearchService
+ *
+ * This service answers food searches against an external food database on behalf of every
+ * device, so each distinct search reaches the database once instead of once per device.
+ * Results are kept in a disk-backed cache that survives restarts. When several requests for
+ * the same search arrive while it is still running, only the first is forwarded and the rest
+ * wait for its result. Results come back as unsaved food items with nutrients per gram.
+ */
+
+@Service
+public class ExternalFoodSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalFoodSearchService.class);
+
+    // Largest page of results the USDA API returns
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final TypeReference<List<FoodItem>> FOOD_LIST = new TypeReference<>() {
+    };
+
+    @Autowired
+    private List<FoodDatabaseProvider> providers;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Name of the provider searches are forwarded to
+    @Value("${calmacro.food-search.provider:usda}")
+    private String providerName;
+
+    // Cached search results, keyed by provider, page size, and normalized query
+    private final DiskLruCache cache;
+
+    // Searches currently being forwarded, keyed the same way as the cache
+    private final Map<String, CompletableFuture<List<FoodItem>>> inFlight = new ConcurrentHashMap<>();
+
+    // Requests answered by joining a search that was already running
+    private final AtomicLong sharedRequests = new AtomicLong();
+
+    // Constructor to open the result cache from configuration
+    public ExternalFoodSearchService(@Value("${calmacro.food-search.cache-dir:${java.io.tmpdir}/calmacro-food-search}") String cacheDir,
+                                     @Value("${calmacro.food-search.cache.max-entries:5000}") int maxEntries,
+                                     @Value("${calmacro.food-search.cache.ttl:P1D}") Duration ttl) throws IOException {
+        this.cache = new DiskLruCache(Paths.get(cacheDir), maxEntries, ttl);
+    }
+
+    // Searches the configured food database, answering from the cache or a running identical search when possible
+    public List<FoodItem> search(String query, int pageSize) {
+        String normalized = query == null ? "" : query.trim().toLowerCase().replaceAll("\\s+", " ");
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        FoodDatabaseProvider provider = getProvider();
+        String key = provider.name() + "|" + size + "|" + normalized;
+
+        List<FoodItem> cached = readCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The first request for a key runs the search; later ones wait on the same future
+        CompletableFuture<List<FoodItem>> future = new CompletableFuture<>();
+        CompletableFuture<List<FoodItem>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            sharedRequests.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            List<FoodItem> foods = provider.search(normalized, size);
+            cache.put(key, objectMapper.writeValueAsBytes(foods));
+            future.complete(foods);
+        } catch (IOException e) {
+            logger.warn("Food database search for '{}' failed", normalized, e);
+            future.completeExceptionally(new IllegalStateException("Food database search failed", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new IllegalStateException("Food database search was interrupted", e));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+        return await(future);
+    }
+
+    // Reports the cache counts along with the provider in use and how many requests shared a running search
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(cache.stats());
+        stats.put("provider", providerName);
+        stats.put("inFlight", inFlight.size());
+        stats.put("sharedRequests", sharedRequests.get());
+        return stats;
+    }
+
+    // Removes every cached result
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    // Finds the configured provider
+    private FoodDatabaseProvider getProvider() {
+        for (FoodDatabaseProvider provider : providers) {
+            if (provider.name().equalsIgnoreCase(providerName)) {
+                return provider;
+            }
+        }
+        throw new IllegalStateException("No food database provider named " + providerName);
+    }
+
+    // Reads cached results, or returns null when there are none or they cannot be read
+    private List<FoodItem> readCached(String key) {
+        byte[] bytes = cache.get(key);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(bytes, FOOD_LIST);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cached food search results", e);
+            return null;
+        }
+    }
+
+    // Waits for a search, rethrowing its failure as it was raised
+    private List<FoodItem> await(CompletableFuture<List<FoodItem>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
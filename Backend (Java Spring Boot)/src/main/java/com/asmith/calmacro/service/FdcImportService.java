@@ -0,0 +1,265 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.search.FoodNameIndex;
+import com.asmith.calmacro.util.FdcFoods;
+import com.asmith.calmacro.util.Gtin;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * FdcImportService
+ *
+ * This service loads a downloaded USDA FoodData Central JSON dump, or a zip holding one, into the
+ * shared food catalog. Foods are read from the file one at a time with a streaming parser and
+ * written in large JDBC batches, so heap use depends on the batch size rather than the size of
+ * the dump. Each batch commits together with a checkpoint of how many foods have been read, and
+ * an interrupted import resumes after the last committed batch. Foods are keyed by their FDC ID,
+ * so importing the same food again updates it in place.
+ */
+
+@Service
+public class FdcImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FdcImportService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FoodNameIndex foodNameIndex;
+
+    @Autowired
+    private FoodItemService foodItemService;
+
+    // Dump file to import at startup; no import runs when it is blank
+    @Value("${calmacro.fdc.import-file:}")
+    private String importFile;
+
+    // Number of foods written per batch and checkpoint
+    @Value("${calmacro.fdc.batch-size:1000}")
+    private int batchSize;
+
+    // A food that shares its barcode with one already imported under another FDC ID updates that row
+    private static final String UPSERT_SQL = "INSERT INTO food_item (fdc_id, name, user_id, serving_size, serving_size_unit, "
+            + "serving_text, barcode, " + String.join(", ", FdcFoods.NUTRIENT_COLUMNS.keySet()) + ") "
+            + "VALUES (?, ?, NULL, ?, ?, ?, ?" + ", ?".repeat(FdcFoods.NUTRIENT_COLUMNS.size()) + ") "
+            + "ON DUPLICATE KEY UPDATE name = VALUES(name), serving_size = VALUES(serving_size), "
+            + "serving_size_unit = VALUES(serving_size_unit), serving_text = VALUES(serving_text), "
+            + "barcode = COALESCE(VALUES(barcode), barcode)"
+            + FdcFoods.NUTRIENT_COLUMNS.keySet().stream().map(column -> ", " + column + " = VALUES(" + column + ")")
+                    .reduce("", String::concat);
+
+    private static final String CHECKPOINT_SQL = "INSERT INTO fdc_import_checkpoint (source, records_read, completed, updated_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE records_read = VALUES(records_read), "
+            + "completed = VALUES(completed), updated_at = VALUES(updated_at)";
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Progress of the current or last import
+    private volatile String source;
+    private volatile long recordsRead;
+    private volatile long recordsWritten;
+    private volatile String state = "idle";
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // Starts importing the configured dump in the background once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void importConfiguredFile() {
+        if (importFile == null || importFile.isBlank()) {
+            return;
+        }
+        Path path = Paths.get(importFile);
+        Thread thread = new Thread(() -> {
+            try {
+                importFile(path);
+            } catch (Exception e) {
+                logger.error("FoodData Central import of {} failed", path, e);
+            }
+        }, "fdc-import");
+        thread.start();
+    }
+
+    // Imports a FoodData Central JSON dump or zip, resuming from its checkpoint if it was interrupted
+    public void importFile(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        if (!name.endsWith(".json") && !name.endsWith(".zip")) {
+            throw new IllegalArgumentException("Only FoodData Central JSON dumps, plain or zipped, are supported");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running");
+        }
+        try {
+            // The file size is part of the key, so a newer dump under the same name starts over
+            source = path.getFileName() + ":" + Files.size(path);
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            recordsRead = 0;
+            recordsWritten = 0;
+            state = "running";
+            runImport(path, source);
+            state = "completed";
+        } catch (IOException | RuntimeException e) {
+            state = "failed";
+            throw e;
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // Reports the source, counts, state, and timing of the current or last import
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("source", source);
+        status.put("state", state);
+        status.put("recordsRead", recordsRead);
+        status.put("recordsWritten", recordsWritten);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    // Streams the foods of a dump into the catalog in batches
+    private void runImport(Path path, String source) throws IOException {
+        long resumeAfter = 0;
+        List<Map<String, Object>> checkpoints = jdbcTemplate.queryForList(
+                "SELECT records_read, completed FROM fdc_import_checkpoint WHERE source = ?", source);
+        if (!checkpoints.isEmpty()) {
+            if (Boolean.TRUE.equals(checkpoints.get(0).get("completed"))) {
+                logger.info("FoodData Central dump {} was already imported", source);
+                return;
+            }
+            resumeAfter = ((Number) checkpoints.get(0).get("records_read")).longValue();
+            logger.info("Resuming FoodData Central import of {} after {} foods", source, resumeAfter);
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        try (InputStream in = openDump(path); JsonParser parser = objectMapper.createParser(in)) {
+            // Foods are the elements of the first array in the file, such as FoundationFoods or BrandedFoods
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            if (token == null) {
+                throw new IllegalArgumentException("No list of foods found in " + path);
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode food = objectMapper.readTree(parser);
+                recordsRead++;
+                if (recordsRead <= resumeAfter) {
+                    continue;
+                }
+                Object[] row = toRow(food);
+                if (row != null) {
+                    batch.add(row);
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(transactionTemplate, batch, source, false);
+                }
+            }
+        }
+        writeBatch(transactionTemplate, batch, source, true);
+        logger.info("Imported {} foods from FoodData Central dump {}", recordsWritten, source);
+
+        // Make the new foods searchable, and drop scans cached before they were updated
+        foodNameIndex.load();
+        foodItemService.clearBarcodeCache();
+    }
+
+    // Writes a batch of foods and the checkpoint after it in one transaction
+    private void writeBatch(TransactionTemplate transactionTemplate, List<Object[]> batch, String source, boolean completed) {
+        long read = recordsRead;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, source, read, completed, LocalDateTime.now());
+        });
+        recordsWritten += batch.size();
+        batch.clear();
+        logger.info("FoodData Central import of {}: {} foods read, {} written", source, read, recordsWritten);
+    }
+
+    // Opens a plain JSON dump, or the first JSON file inside a zip
+    private InputStream openDump(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        if (!path.getFileName().toString().toLowerCase().endsWith(".zip")) {
+            return in;
+        }
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".json")) {
+                return zip;
+            }
+        }
+        zip.close();
+        throw new IllegalArgumentException("No JSON file found in " + path);
+    }
+
+    // Maps one FDC food onto the food_item columns, or returns null when it has no ID or description
+    private Object[] toRow(JsonNode food) {
+        long fdcId = food.path("fdcId").asLong(0);
+        String name = FdcFoods.name(food);
+        if (fdcId == 0 || name == null) {
+            return null;
+        }
+
+        Object[] row = new Object[6 + FdcFoods.NUTRIENT_COLUMNS.size()];
+        row[0] = fdcId;
+        row[1] = name;
+        row[2] = food.hasNonNull("servingSize") ? BigDecimal.valueOf(food.get("servingSize").asDouble()) : null;
+        row[3] = FdcFoods.text(food, "servingSizeUnit");
+        row[4] = FdcFoods.text(food, "householdServingFullText");
+
+        // Branded foods carry their package barcode; codes that are not valid GTINs are left out
+        row[5] = Gtin.normalize(FdcFoods.text(food, "gtinUpc"));
+
+        Map<String, Double> amounts = FdcFoods.amounts(food);
+        int i = 6;
+        for (String column : FdcFoods.NUTRIENT_COLUMNS.keySet()) {
+            row[i++] = FdcFoods.perGram(amounts, column);
+        }
+        return row;
+    }
+}
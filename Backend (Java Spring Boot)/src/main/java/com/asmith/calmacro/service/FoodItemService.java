@@ -1,15 +1,34 @@
 package com.asmith.calmacro.service;
 
+import com.asmith.calmacro.dto.FoodItemSummary;
+import com.asmith.calmacro.dto.LoggedDay;
+import com.asmith.calmacro.dto.PageResponse;
 import com.asmith.calmacro.model.FoodItem;
 import com.asmith.calmacro.repository.FoodItemRepository;
 import com.asmith.calmacro.repository.FoodLogRepository;
+import com.asmith.calmacro.search.FoodNameIndex;
+import com.asmith.calmacro.util.Gtin;
+import com.asmith.calmacro.util.TtlCache;
+
+import jakarta.persistence.criteria.Predicate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -17,7 +36,9 @@ import java.util.stream.Collectors;
  * 
  * Service class responsible for handling business logic related to food items.
  * This includes creating, retrieving, updating, and deleting food items, as well as
- * performing keyword-based search and user-specific filtering.
+ * performing keyword-based search and user-specific filtering. Searches are answered
+ * from an in-memory index of food names, which every change here keeps up to date.
+ * Barcode scans are served from an in-memory cache in front of the barcode index.
  */
 
 @Service
@@ -29,9 +50,52 @@ public class FoodItemService {
     @Autowired
     private FoodLogRepository foodLogRepository;
 
-    // Saves a new food item to the repository
+    @Autowired
+    private DailyNutrientRollupService rollupService;
+
+    @Autowired
+    private FoodUsageService foodUsageService;
+
+    @Autowired
+    private FoodNameIndex foodNameIndex;
+
+    // Largest number of results a ranked or fuzzy search returns
+    private static final int MAX_RANKED_RESULTS = 100;
+
+    // Largest number of completions a suggestion returns
+    private static final int MAX_SUGGESTIONS = 10;
+
+    // Largest page of search results
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Recently scanned food items, keyed by normalized barcode
+    private final TtlCache<String, FoodItem> barcodeCache;
+
+    // Constructor to size the barcode cache from configuration
+    public FoodItemService(@Value("${calmacro.cache.barcode.max-size:10000}") int barcodeCacheMaxSize,
+                           @Value("${calmacro.cache.barcode.ttl:PT1H}") Duration barcodeCacheTtl) {
+        this.barcodeCache = new TtlCache<>(barcodeCacheMaxSize, barcodeCacheTtl);
+    }
+
+    // Saves a new food item to the repository and indexes its name. A food from FoodData Central that is
+    // already in the catalog is returned as it is, so picking the same search result twice does not copy it
     public FoodItem addFoodItem(FoodItem foodItem) {
-        return foodItemRepository.save(foodItem);
+        if (foodItem.getFdcId() != null) {
+            Optional<FoodItem> existing = foodItemRepository.findByFdcId(foodItem.getFdcId());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        if (foodItem.getBarcode() != null) {
+            String barcode = Gtin.normalize(foodItem.getBarcode());
+            if (barcode == null) {
+                throw new IllegalArgumentException("Invalid barcode");
+            }
+            foodItem.setBarcode(barcode);
+        }
+        FoodItem savedFoodItem = foodItemRepository.save(foodItem);
+        foodNameIndex.put(savedFoodItem);
+        return savedFoodItem;
     }
 
     // Retrieves a food item by its ID
@@ -39,31 +103,145 @@ public class FoodItemService {
         return foodItemRepository.findById(id);
     }
 
-    // Performs a keyword-based case-insensitive search on food names
-    public List<FoodItem> getFoodItemByName(String name) {
+    // Retrieves the food item with the given UPC, EAN, or GTIN barcode, from the cache when it was scanned recently
+    public Optional<FoodItem> getFoodItemByBarcode(String code) {
+        String barcode = Gtin.normalize(code);
+        if (barcode == null) {
+            throw new IllegalArgumentException("Invalid barcode");
+        }
+        return Optional.ofNullable(barcodeCache.getOrLoad(barcode,
+            key -> foodItemRepository.findByBarcode(key).orElse(null)));
+    }
+
+    // Retrieves the hit, miss, and eviction counts of the barcode cache
+    public Map<String, Number> getBarcodeCacheStats() {
+        return barcodeCache.stats();
+    }
+
+    // Drops every cached barcode lookup, after food items change in bulk
+    public void clearBarcodeCache() {
+        barcodeCache.invalidateAll();
+    }
+
+    // Performs a keyword-based case-insensitive search on food names, returning at most the limit in ID order
+    public List<FoodItem> getFoodItemByName(String name, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
         // Trim the input name and split it into keywords
         String[] keywords = name.trim().toLowerCase().split("\\s+"); // Split by spaces
-    
-        return foodItemRepository.findAll() // Fetch all food items
-            .stream()
-            .filter(foodItem -> matchesSearchCriteria(foodItem.getName(), keywords))
-            .collect(Collectors.toList());
+
+        // An empty search matches nothing rather than the whole catalog
+        boolean anyKeyword = Arrays.stream(keywords).anyMatch(keyword -> !keyword.isEmpty());
+        if (!anyKeyword) {
+            return List.of();
+        }
+
+        // While the name index is loading, or when the catalog is too large for it, let the database
+        // match every keyword
+        if (!foodNameIndex.isReady()) {
+            return foodItemRepository.findAll(nameContainsAll(keywords),
+                PageRequest.of(0, limit, Sort.by("id"))).getContent();
+        }
+
+        // Only the first matching items are read from the database
+        List<Long> ids = foodNameIndex.search(keywords);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<FoodItem> foodItems = foodItemRepository.findAllById(ids.subList(0, Math.min(limit, ids.size())));
+        foodItems.sort(Comparator.comparing(FoodItem::getId));
+        return foodItems;
     }
     
-    // Checks if the food name contains all keywords (case-insensitive)
-    private boolean matchesSearchCriteria(String foodName, String[] keywords) {
-        // Convert foodName to lowercase for case-insensitive comparison
-        String lowerCaseFoodName = foodName.toLowerCase();
-    
-        // Check if all keywords are present in the food name
-        for (String keyword : keywords) {
-            if (!keyword.isEmpty() && !lowerCaseFoodName.contains(keyword)) {
-                return false; // If any keyword is missing, return false
-            }
+    // Retrieves one page of summaries of the food items whose names contain every keyword, in ID order
+    public PageResponse<FoodItemSummary> searchPage(String name, int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
         }
-        return true; // All keywords are present
-    }   
-    
+        String[] keywords = name.trim().toLowerCase().split("\\s+");
+        boolean anyKeyword = Arrays.stream(keywords).anyMatch(keyword -> !keyword.isEmpty());
+
+        // Let the database page an empty search, or any search made while the name index is still loading,
+        // with the same every-keyword match the index applies
+        if (!anyKeyword || !foodNameIndex.isReady()) {
+            Page<FoodItemSummary> result = foodItemRepository.findBy(nameContainsAll(keywords),
+                query -> query.as(FoodItemSummary.class).sortBy(Sort.by("id")).page(PageRequest.of(page, size)));
+            return toPageResponse(result.getContent(), page, size, result.getTotalElements());
+        }
+
+        // Match on the index, then read only the summaries on the requested page
+        List<Long> ids = foodNameIndex.search(keywords);
+        int from = (int) Math.min((long) page * size, ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + size, ids.size()));
+        List<FoodItemSummary> content = pageIds.isEmpty() ? List.of() : foodItemRepository.findByIdIn(pageIds);
+        content = content.stream().sorted(Comparator.comparing(FoodItemSummary::getId)).collect(Collectors.toList());
+        return toPageResponse(content, page, size, ids.size());
+    }
+
+    // Matches food items whose names contain every keyword, ignoring case. LIKE wildcards in a keyword are
+    // escaped so they match literally, and no keywords match every food item
+    private static Specification<FoodItem> nameContainsAll(String[] keywords) {
+        return (root, query, builder) -> builder.and(Arrays.stream(keywords)
+                .filter(keyword -> !keyword.isEmpty())
+                .map(keyword -> builder.like(builder.lower(root.get("name")),
+                        "%" + keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%", '\\'))
+                .toArray(Predicate[]::new));
+    }
+
+    // Builds a page response from a page's content and the total number of matches
+    private <T> PageResponse<T> toPageResponse(List<T> content, int page, int size, long total) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setContent(content);
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotalElements(total);
+        response.setTotalPages((int) ((total + size - 1) / size));
+        return response;
+    }
+
+    // Retrieves the food items whose names best match the search, most relevant first. Plural and
+    // singular forms match each other, and the searching user's own food items rank higher
+    public List<FoodItem> searchRanked(String query, Long userId, int limit) {
+        if (limit <= 0 || limit > MAX_RANKED_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RANKED_RESULTS);
+        }
+        // Fetch only the hits, in rank order
+        return findInOrder(foodNameIndex.rankedSearch(query, userId, limit));
+    }
+
+    // Retrieves the food items whose names match every word of the search within a few typos, closest first
+    public List<FoodItem> searchFuzzy(String query, int limit) {
+        if (limit <= 0 || limit > MAX_RANKED_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RANKED_RESULTS);
+        }
+        return findInOrder(foodNameIndex.fuzzySearch(query, limit));
+    }
+
+    // Retrieves the most popular food items with a word starting with the prefix, most popular first
+    public List<FoodItem> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return findInOrder(foodNameIndex.suggest(prefix, limit));
+    }
+
+    // Retrieves the size and estimated memory of the suggestion index
+    public Map<String, Number> getSuggestionStats() {
+        return foodNameIndex.suggestionStats();
+    }
+
+    // Fetches food items by ID, keeping the order of the IDs
+    private List<FoodItem> findInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, FoodItem> foodItems = foodItemRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+        return ids.stream().map(foodItems::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     // Retrieves all food items created by a specific user
     public List<FoodItem> getFoodItemsByUserId(Long userId) { 
         return foodItemRepository.findByUserId(userId);
@@ -74,12 +252,19 @@ public class FoodItemService {
         return foodItemRepository.findTop20ByUserIdOrderByIdDesc(userId);
     }
 
+    // Retrieves the food items a user logs most, weighted toward recent logs
+    public List<FoodItem> getFrequentFoodItemsForUser(Long userId, int limit) {
+        return foodUsageService.getFrequentFoodItems(userId, limit);
+    }
+
     // Updates the fields of an existing food item
+    @Transactional
     public FoodItem updateFoodItemDetails(FoodItem foodItem) {
         // Fetch the existing food item from the database
         Optional<FoodItem> existingFoodItemOptional = foodItemRepository.findById(foodItem.getId());
         if (existingFoodItemOptional.isPresent()) {
             FoodItem existingFoodItem = existingFoodItemOptional.get();
+            boolean renamed = !Objects.equals(existingFoodItem.getName(), foodItem.getName());
             
             // Update the food item's details
             existingFoodItem.setName(foodItem.getName());
@@ -107,8 +292,17 @@ public class FoodItemService {
             existingFoodItem.setAddedSugars(foodItem.getAddedSugars());
             existingFoodItem.setVitaminD(foodItem.getVitaminD());
             
-            // Save the updated food item object
-            return foodItemRepository.save(existingFoodItem);
+            // Save the updated food item object, reindex its name, and drop its cached scan. Days that log a
+            // renamed food item get a new version, as their listed entries show its name
+            FoodItem savedFoodItem = foodItemRepository.save(existingFoodItem);
+            foodNameIndex.put(savedFoodItem);
+            if (renamed) {
+                rollupService.foodItemRenamed(savedFoodItem.getId());
+            }
+            if (savedFoodItem.getBarcode() != null) {
+                barcodeCache.invalidate(savedFoodItem.getBarcode());
+            }
+            return savedFoodItem;
         } else {
             // Handle if the food item does not exist
             throw new IllegalArgumentException("Food item not found");
@@ -118,10 +312,23 @@ public class FoodItemService {
     // Deletes a food item and its associated food log entries
     @Transactional
     public void deleteFoodItem(Long foodItemId) {
+        // Remember which days logged the food item so their rollups can be rebuilt
+        List<LoggedDay> affectedDays = foodLogRepository.findLoggedDaysByFoodItemId(foodItemId);
+
+        // Drop the food item's cached scan, if it has a barcode
+        foodItemRepository.findById(foodItemId)
+            .map(FoodItem::getBarcode)
+            .ifPresent(barcodeCache::invalidate);
+
         // First delete any associated food log entries
         foodLogRepository.deleteByFoodItemId(foodItemId);
 
-        // Then delete the food item itself
+        // Then delete the food item itself and its usage
         foodItemRepository.deleteById(foodItemId);
+        foodUsageService.deleteItem(FoodUsageService.FOOD, foodItemId);
+        foodNameIndex.remove(foodItemId);
+
+        // Rebuild the rollups of the days that lost entries
+        rollupService.rebuildDays(affectedDays);
     }
 }
@@ -0,0 +1,120 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.dto.FoodLogDTO;
+import com.asmith.calmacro.model.FoodLog;
+import com.asmith.calmacro.repository.FoodLogRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * FoodLogExportService
+ *
+ * This service writes a user's food log history for a date range as NDJSON or CSV. Entries are
+ * streamed from the database and written one at a time, and each entry is detached once written,
+ * so memory use stays flat no matter how many years of history are exported.
+ */
+
+@Service
+public class FoodLogExportService {
+
+    @Autowired
+    private FoodLogRepository foodLogRepository;
+
+    @Autowired
+    private FoodLogService foodLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Column order of the CSV export
+    private static final String CSV_HEADER = "id,logDate,logTime,selectedMeal,foodItemId,recipeId,foodItemName,quantity,"
+            + "selectedUnit,unitQuantity,water,calories,protein,carbs,fat,totalSugars,addedSugars,transFat,saturatedFat,"
+            + "polyunsaturatedFat,monounsaturatedFat,cholesterol,fiber,calcium,iron,sodium,potassium,vitaminA,vitaminC,vitaminD";
+
+    // Checks whether the given export format is supported
+    public boolean isSupportedFormat(String format) {
+        return "ndjson".equalsIgnoreCase(format) || "csv".equalsIgnoreCase(format);
+    }
+
+    // Streams a user's food logs within a date range to the output stream in the given format
+    @Transactional(readOnly = true)
+    public void exportFoodLogs(Long userId, LocalDate startDate, LocalDate endDate, String format, OutputStream outputStream)
+            throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<FoodLog> foodLogs = foodLogRepository.streamByUserIdAndLogDateBetween(userId, startDate, endDate)) {
+            Iterator<FoodLog> iterator = foodLogs.iterator();
+            while (iterator.hasNext()) {
+                FoodLog foodLog = iterator.next();
+                FoodLogDTO dto = foodLogService.mapToDTO(foodLog);
+                if (csv) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+
+                // Drop the written entry from the persistence context so it can be garbage collected
+                entityManager.detach(foodLog);
+            }
+        }
+        writer.flush();
+    }
+
+    // Writes a single CSV row in header order
+    private void writeCsvRow(Writer writer, FoodLogDTO dto) throws IOException {
+        Object[] values = {
+            dto.getId(), dto.getLogDate(), dto.getLogTime(), dto.getSelectedMeal(), dto.getFoodItemId(), dto.getRecipeId(),
+            dto.getFoodItemName(), dto.getQuantity(), dto.getSelectedUnit(), dto.getUnitQuantity(), dto.getWater(),
+            dto.getCalories(), dto.getProtein(), dto.getCarbs(), dto.getFat(), dto.getTotalSugars(), dto.getAddedSugars(),
+            dto.getTransFat(), dto.getSaturatedFat(), dto.getPolyunsaturatedFat(), dto.getMonounsaturatedFat(),
+            dto.getCholesterol(), dto.getFiber(), dto.getCalcium(), dto.getIron(), dto.getSodium(), dto.getPotassium(),
+            dto.getVitaminA(), dto.getVitaminC(), dto.getVitaminD()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    // Formats a single CSV value, quoting it when it contains a delimiter, quote, or line break
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -1,8 +1,10 @@
 package com.asmith.calmacro.service;
 
 import com.asmith.calmacro.dto.FoodLogDTO;
+import com.asmith.calmacro.dto.TimelinePageDTO;
 import com.asmith.calmacro.model.FoodItem;
 import com.asmith.calmacro.model.FoodLog;
+import com.asmith.calmacro.model.NutrientProfile;
 import com.asmith.calmacro.model.Recipe;
 import com.asmith.calmacro.model.User;
 import com.asmith.calmacro.repository.FoodItemRepository;
@@ -12,14 +14,19 @@ import com.asmith.calmacro.repository.FoodLogRepository;
 import jakarta.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service; 
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -27,12 +34,15 @@ import java.util.stream.Collectors;
  * 
  * This service provides core logic for managing food log entries. It allows users to log food items
  * or recipes, retrieve logs for a specific date, and calculate total nutritional values, either overall
- * or by meal type. 
+ * or by meal type. Each logged entry keeps its own copy of the nutrient values it was logged with.
  */
 
 @Service
 public class FoodLogService {
 
+    // Largest number of entries returned in one timeline page
+    private static final int MAX_TIMELINE_PAGE_SIZE = 100;
+
     @Autowired
     private FoodLogRepository foodLogRepository;
 
@@ -42,7 +52,14 @@ public class FoodLogService {
     @Autowired
     private RecipeRepository recipeRepository;
 
+    @Autowired
+    private DailyNutrientRollupService rollupService;
+
+    @Autowired
+    private FoodUsageService foodUsageService;
+
     // Logs a food item or recipe for a user with nutritional and metadata details
+    @Transactional
     public FoodLog logFood(Long foodItemId, Long recipeId, User user, BigDecimal quantity, 
                            LocalDate logDate, String selectedMeal, String selectedUnit, 
                            BigDecimal unitQuantity, LocalTime logTime, BigDecimal water) {
@@ -54,171 +71,205 @@ public class FoodLogService {
             FoodItem foodItem = foodItemRepository.findById(foodItemId)
                     .orElseThrow(() -> new EntityNotFoundException("FoodItem not found"));
             foodLog.setFoodItem(foodItem);
+            copyNutrients(foodLog, foodItem);
         } else if (recipeId != null) {
             // Fetch the recipe from the repository
             Recipe recipe = recipeRepository.findById(recipeId)
                     .orElseThrow(() -> new EntityNotFoundException("Recipe not found"));
             foodLog.setRecipe(recipe);
+            copyNutrients(foodLog, recipe);
         }
 
         // Set the remaining log metadata
         foodLog.setUser(user);
         foodLog.setQuantity(quantity);
         foodLog.setLogDate(logDate);
-        foodLog.setSelectedMeal(selectedMeal);
+        foodLog.setSelectedMeal(mealOrDefault(selectedMeal));
         foodLog.setSelectedUnit(selectedUnit);
         foodLog.setUnitQuantity(unitQuantity);
-        foodLog.setLogTime(logTime);
+        foodLog.setLogTime(logTime != null ? logTime : LocalTime.MIDNIGHT);
         foodLog.setWater(water);
         
-        // Save and return the food log
+        // Save the food log and add it to the day's rollup
         FoodLog savedFoodLog = foodLogRepository.save(foodLog);
+        rollupService.addLog(savedFoodLog);
+        foodUsageService.recordLog(savedFoodLog);
         return savedFoodLog;
     }
 
+    // Logs many food items or recipes for a user at once, looking up every referenced food and recipe with one query each
+    @Transactional
+    public List<FoodLog> logFoods(User user, List<FoodLogDTO> entries) {
+        Set<Long> foodItemIds = new HashSet<>();
+        Set<Long> recipeIds = new HashSet<>();
+        for (FoodLogDTO entry : entries) {
+            if (entry.getFoodItemId() != null) {
+                foodItemIds.add(entry.getFoodItemId());
+            } else if (entry.getRecipeId() != null) {
+                recipeIds.add(entry.getRecipeId());
+            }
+        }
+
+        Map<Long, FoodItem> foodItems = foodItemRepository.findAllById(foodItemIds).stream()
+                .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        List<FoodLog> foodLogs = entries.stream().map(entry -> {
+            FoodLog foodLog = new FoodLog();
+
+            // Determine whether to log a food item or a recipe
+            if (entry.getFoodItemId() != null) {
+                FoodItem foodItem = foodItems.get(entry.getFoodItemId());
+                if (foodItem == null) {
+                    throw new EntityNotFoundException("FoodItem not found");
+                }
+                foodLog.setFoodItem(foodItem);
+                copyNutrients(foodLog, foodItem);
+            } else if (entry.getRecipeId() != null) {
+                Recipe recipe = recipes.get(entry.getRecipeId());
+                if (recipe == null) {
+                    throw new EntityNotFoundException("Recipe not found");
+                }
+                foodLog.setRecipe(recipe);
+                copyNutrients(foodLog, recipe);
+            }
+
+            // Set the remaining log metadata
+            foodLog.setUser(user);
+            foodLog.setQuantity(entry.getQuantity());
+            foodLog.setLogDate(entry.getLogDate());
+            foodLog.setSelectedMeal(mealOrDefault(entry.getSelectedMeal()));
+            foodLog.setSelectedUnit(entry.getSelectedUnit());
+            foodLog.setUnitQuantity(entry.getUnitQuantity());
+            foodLog.setLogTime(entry.getLogTime() != null ? entry.getLogTime() : LocalTime.MIDNIGHT);
+            foodLog.setWater(entry.getWater());
+            return foodLog;
+        }).collect(Collectors.toList());
+
+        // Save every entry and apply one rollup delta per day and meal
+        List<FoodLog> savedFoodLogs = foodLogRepository.saveAll(foodLogs);
+        rollupService.addLogs(savedFoodLogs);
+        foodUsageService.recordLogs(savedFoodLogs);
+        return savedFoodLogs;
+    }
+
+    // Returns the meal to save an entry under, falling back to the default meal when none was given
+    private String mealOrDefault(String selectedMeal) {
+        return selectedMeal == null || selectedMeal.isBlank() ? FoodLog.DEFAULT_MEAL : selectedMeal;
+    }
+
+    // Copies the per-unit nutrient values of a food item or recipe onto a food log entry
+    private void copyNutrients(FoodLog foodLog, NutrientProfile source) {
+        foodLog.setCalories(source.getCalories());
+        foodLog.setProtein(source.getProtein());
+        foodLog.setCarbs(source.getCarbs());
+        foodLog.setFat(source.getFat());
+        foodLog.setTotalSugars(source.getTotalSugars());
+        foodLog.setAddedSugars(source.getAddedSugars());
+        foodLog.setTransFat(source.getTransFat());
+        foodLog.setSaturatedFat(source.getSaturatedFat());
+        foodLog.setPolyunsaturatedFat(source.getPolyunsaturatedFat());
+        foodLog.setMonounsaturatedFat(source.getMonounsaturatedFat());
+        foodLog.setCholesterol(source.getCholesterol());
+        foodLog.setFiber(source.getFiber());
+        foodLog.setCalcium(source.getCalcium());
+        foodLog.setIron(source.getIron());
+        foodLog.setSodium(source.getSodium());
+        foodLog.setPotassium(source.getPotassium());
+        foodLog.setVitaminA(source.getVitaminA());
+        foodLog.setVitaminC(source.getVitaminC());
+        foodLog.setVitaminD(source.getVitaminD());
+    }
+
     // Retrieves all food logs for a user on a specific date and maps them to DTOs
     public List<FoodLogDTO> getFoodLogsByUserIdAndDate(User user, LocalDate date) {
         List<FoodLog> foodLogs = foodLogRepository.findByUserAndLogDate(user, date);
         return foodLogs.stream().map(this::mapToDTO).collect(Collectors.toList());
     }
 
-    // Calculates total daily nutritional totals for a user on a specific date
-    public Map<String, BigDecimal> calculateDailyTotals(User user, LocalDate date) {
-        List<FoodLog> foodLogs = foodLogRepository.findByUserAndLogDate(user, date);
-        Map<String, BigDecimal> totals = new HashMap<>();
-
-         // List of nutrients to calculate totals for
-        List<String> nutrients = List.of("calories", "protein", "carbs", "fat", "totalSugars", "addedSugars",
-                "transFat", "saturatedFat", "polyunsaturatedFat", "monounsaturatedFat", "cholesterol",
-                "fiber", "calcium", "iron", "sodium", "potassium", "vitaminA", "vitaminC", "vitaminD", "water");
-    
-        // Initialize all nutrient totals to zero
-        for (String nutrient : nutrients) {
-            totals.put(nutrient, BigDecimal.ZERO);
+    // Retrieves one page of a user's food logs, newest first, starting after the given cursor
+    @Transactional(readOnly = true)
+    public TimelinePageDTO getTimeline(User user, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_TIMELINE_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TIMELINE_PAGE_SIZE);
         }
-        totals.put("water", BigDecimal.ZERO);
-    
-        // Aggregate totals across all food logs
-        for (FoodLog foodLog : foodLogs) {
-            BigDecimal quantity = new BigDecimal(foodLog.getQuantity().toString());
-            if (foodLog.getFoodItem() != null) {
-                updateTotals(totals, foodLog.getFoodItem(), quantity);
-            } else if (foodLog.getRecipe() != null) {
-                updateTotals(totals, foodLog.getRecipe(), quantity);
+
+        // One extra row tells whether an older page exists without a separate count query
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<FoodLog> foodLogs;
+        if (cursor == null || cursor.isBlank()) {
+            foodLogs = foodLogRepository.findTimeline(user.getId(), page);
+        } else {
+            String[] parts = cursor.split("_");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid timeline cursor");
+            }
+            try {
+                foodLogs = foodLogRepository.findTimelineBefore(user.getId(), LocalDate.parse(parts[0]),
+                        LocalTime.parse(parts[1]), Long.parseLong(parts[2]), page);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid timeline cursor");
             }
-            totals.put("water", totals.get("water").add(foodLog.getWater() != null ? foodLog.getWater() : BigDecimal.ZERO));
         }
-    
-        return totals;
-    }   
+
+        boolean hasMore = foodLogs.size() > limit;
+        List<FoodLog> entries = hasMore ? foodLogs.subList(0, limit) : foodLogs;
+
+        TimelinePageDTO dto = new TimelinePageDTO();
+        dto.setEntries(entries.stream().map(this::mapToDTO).collect(Collectors.toList()));
+        if (hasMore) {
+            FoodLog last = entries.get(entries.size() - 1);
+            dto.setNextCursor(last.getLogDate() + "_" + last.getLogTime() + "_" + last.getId());
+        }
+        return dto;
+    }
+
+    // Calculates total daily nutritional totals for a user on a specific date
+    public Map<String, BigDecimal> calculateDailyTotals(User user, LocalDate date) {
+        return rollupService.getDailyTotals(user.getId(), date);
+    }
 
     // Calculates daily nutrient totals grouped by meal type
     public Map<String, Map<String, BigDecimal>> calculateDailyTotalsByMeal(User user, LocalDate date) {
-        List<String> mealTypes = List.of("Breakfast", "Lunch", "Dinner", "Snack");
-    
-        // Initialize a map to hold totals for each meal type
-        Map<String, Map<String, BigDecimal>> mealTotals = new HashMap<>();
-    
-        // Define the nutrients to track
-        List<String> nutrients = List.of("calories", "protein", "carbs", "fat", "totalSugars", "addedSugars",
-                "transFat", "saturatedFat", "polyunsaturatedFat", "monounsaturatedFat", "cholesterol",
-                "fiber", "calcium", "iron", "sodium", "potassium", "vitaminA", "vitaminC", "vitaminD", "water");
-    
-        // Initialize totals for each meal type
-        for (String mealType : mealTypes) {
-            Map<String, BigDecimal> totals = new HashMap<>();
-            for (String nutrient : nutrients) {
-                totals.put(nutrient, BigDecimal.ZERO);
-            }
-            totals.put("water", BigDecimal.ZERO);
-            mealTotals.put(mealType, totals);
-        }
-    
-        // Calculate totals for each meal type
-        for (String mealType : mealTypes) {
-            List<FoodLog> foodLogs = foodLogRepository.findByUserAndLogDateAndSelectedMeal(user, date, mealType);
-    
-            Map<String, BigDecimal> totals = mealTotals.get(mealType);
-    
-            for (FoodLog foodLog : foodLogs) {
-                BigDecimal quantity = new BigDecimal(foodLog.getQuantity().toString());
-                if (foodLog.getFoodItem() != null) {
-                    updateTotals(totals, foodLog.getFoodItem(), quantity);
-                } else if (foodLog.getRecipe() != null) {
-                    updateTotals(totals, foodLog.getRecipe(), quantity);
-                }
-                totals.put("water", totals.get("water").add(foodLog.getWater() != null ? foodLog.getWater() : BigDecimal.ZERO));
-            }
-    
-            // Update the mealTotals map with calculated totals for the current mealType
-            mealTotals.put(mealType, totals);
-        }
-    
-        return mealTotals;
+        return rollupService.getMealTotals(user.getId(), date);
     }
-    
-    // Updates a totals map with nutrient values from a FoodItem or Recipe
-    private void updateTotals(Map<String, BigDecimal> totals, Object item, BigDecimal quantity) {
-        // Common nutrient fields are applied similarly whether item is FoodItem or Recipe
-        if (item instanceof FoodItem) {
-            FoodItem foodItem = (FoodItem) item;
-            totals.put("calories", totals.get("calories").add(foodItem.getCalories().multiply(quantity)));
-            totals.put("protein", totals.get("protein").add(foodItem.getProtein().multiply(quantity)));
-            totals.put("carbs", totals.get("carbs").add(foodItem.getCarbs().multiply(quantity)));
-            totals.put("fat", totals.get("fat").add(foodItem.getFat().multiply(quantity)));
-            totals.put("totalSugars", totals.get("totalSugars").add(foodItem.getTotalSugars().multiply(quantity)));
-            totals.put("addedSugars", totals.get("addedSugars").add(foodItem.getAddedSugars().multiply(quantity)));
-            totals.put("transFat", totals.get("transFat").add(foodItem.getTransFat().multiply(quantity)));
-            totals.put("saturatedFat", totals.get("saturatedFat").add(foodItem.getSaturatedFat().multiply(quantity)));
-            totals.put("polyunsaturatedFat", totals.get("polyunsaturatedFat").add(foodItem.getPolyunsaturatedFat().multiply(quantity)));
-            totals.put("monounsaturatedFat", totals.get("monounsaturatedFat").add(foodItem.getMonounsaturatedFat().multiply(quantity)));
-            totals.put("cholesterol", totals.get("cholesterol").add(foodItem.getCholesterol().multiply(quantity)));
-            totals.put("fiber", totals.get("fiber").add(foodItem.getFiber().multiply(quantity)));
-            totals.put("calcium", totals.get("calcium").add(foodItem.getCalcium().multiply(quantity)));
-            totals.put("iron", totals.get("iron").add(foodItem.getIron().multiply(quantity)));
-            totals.put("sodium", totals.get("sodium").add(foodItem.getSodium().multiply(quantity)));
-            totals.put("potassium", totals.get("potassium").add(foodItem.getPotassium().multiply(quantity)));
-            totals.put("vitaminA", totals.get("vitaminA").add(foodItem.getVitaminA().multiply(quantity)));
-            totals.put("vitaminC", totals.get("vitaminC").add(foodItem.getVitaminC().multiply(quantity)));
-            totals.put("vitaminD", totals.get("vitaminD").add(foodItem.getVitaminD().multiply(quantity)));
-        } else if (item instanceof Recipe) {
-            Recipe recipe = (Recipe) item;
-            totals.put("calories", totals.get("calories").add(recipe.getCalories().multiply(quantity)));
-            totals.put("protein", totals.get("protein").add(recipe.getProtein().multiply(quantity)));
-            totals.put("carbs", totals.get("carbs").add(recipe.getCarbs().multiply(quantity)));
-            totals.put("fat", totals.get("fat").add(recipe.getFat().multiply(quantity)));
-            totals.put("totalSugars", totals.get("totalSugars").add(recipe.getTotalSugars().multiply(quantity)));
-            totals.put("addedSugars", totals.get("addedSugars").add(recipe.getAddedSugars().multiply(quantity)));
-            totals.put("transFat", totals.get("transFat").add(recipe.getTransFat().multiply(quantity)));
-            totals.put("saturatedFat", totals.get("saturatedFat").add(recipe.getSaturatedFat().multiply(quantity)));
-            totals.put("polyunsaturatedFat", totals.get("polyunsaturatedFat").add(recipe.getPolyunsaturatedFat().multiply(quantity)));
-            totals.put("monounsaturatedFat", totals.get("monounsaturatedFat").add(recipe.getMonounsaturatedFat().multiply(quantity)));
-            totals.put("cholesterol", totals.get("cholesterol").add(recipe.getCholesterol().multiply(quantity)));
-            totals.put("fiber", totals.get("fiber").add(recipe.getFiber().multiply(quantity)));
-            totals.put("calcium", totals.get("calcium").add(recipe.getCalcium().multiply(quantity)));
-            totals.put("iron", totals.get("iron").add(recipe.getIron().multiply(quantity)));
-            totals.put("sodium", totals.get("sodium").add(recipe.getSodium().multiply(quantity)));
-            totals.put("potassium", totals.get("potassium").add(recipe.getPotassium().multiply(quantity)));
-            totals.put("vitaminA", totals.get("vitaminA").add(recipe.getVitaminA().multiply(quantity)));
-            totals.put("vitaminC", totals.get("vitaminC").add(recipe.getVitaminC().multiply(quantity)));
-            totals.put("vitaminD", totals.get("vitaminD").add(recipe.getVitaminD().multiply(quantity)));
-        }
-    }   
-    
+
+    // Calculates whole-day and per-meal nutrient totals from the day's rollups
+    public Map<String, Object> calculateDailySummary(User user, LocalDate date) {
+        return rollupService.getDailySummary(user.getId(), date);
+    }
+
+    // Builds a strong ETag for a user's day from the day's version. Renaming a logged food item or recipe also
+    // increments the version, so the ETag covers the entry names as well as the totals
+    public String getDayETag(User user, LocalDate date) {
+        return "\"" + user.getId() + "-" + date + "-" + rollupService.getDayVersion(user.getId(), date) + "\"";
+    }
+
+    // Retrieves the hit, miss, and eviction counts of the daily totals cache
+    public Map<String, Number> getTotalsCacheStats() {
+        return rollupService.getCacheStats();
+    }
+
     // Updates a food log's quantity, unit, and meal metadata
+    @Transactional
     public FoodLog updateFoodLog(Long foodLogId, BigDecimal quantity, String selectedMeal, String selectedUnit, BigDecimal unitQuantity) {
         // Find the FoodLog by ID
         FoodLog foodLog = foodLogRepository.findById(foodLogId)
                 .orElseThrow(() -> new EntityNotFoundException("FoodLog not found"));
+
+        // Take the old quantity out of the rollup of the meal it was logged under
+        rollupService.removeLog(foodLog);
     
         // Update fields
         foodLog.setQuantity(quantity);
-        foodLog.setSelectedMeal(selectedMeal);
+        foodLog.setSelectedMeal(mealOrDefault(selectedMeal));
         foodLog.setSelectedUnit(selectedUnit);
         foodLog.setUnitQuantity(unitQuantity);
     
-        // Save and return the updated FoodLog
+        // Save the updated FoodLog and add it back to the rollup of its new meal
         FoodLog updatedFoodLog = foodLogRepository.save(foodLog);
+        rollupService.addLog(updatedFoodLog);
         return updatedFoodLog;
     }
 
@@ -229,16 +280,19 @@ public class FoodLogService {
     }    
 
     // Updates only the water value in a FoodLog entry
+    @Transactional
     public FoodLog updateWaterAmount(Long foodLogId, BigDecimal newWaterAmount) {
         // Find the FoodLog by ID
         FoodLog foodLog = foodLogRepository.findById(foodLogId)
                 .orElseThrow(() -> new EntityNotFoundException("FoodLog not found"));
     
-        // Update the water amount
+        // Update the water amount, moving the day's rollup by the difference
+        rollupService.removeLog(foodLog);
         foodLog.setWater(newWaterAmount);
     
         // Save the updated FoodLog
         FoodLog updatedFoodLog = foodLogRepository.save(foodLog);
+        rollupService.addLog(updatedFoodLog);
             
         return updatedFoodLog;
     }
@@ -248,21 +302,65 @@ public class FoodLogService {
         return foodLogRepository.findByUserAndLogDateBetween(user, startDate, endDate);
     }
 
-    // Deletes a food log by ID
+    // Rebuilds a user's daily nutrient rollups for a date range from their food logs
+    public void rebuildDailyRollups(User user, LocalDate startDate, LocalDate endDate) {
+        rollupService.rebuildRange(user.getId(), startDate, endDate);
+    }
+
+    // Copies a user's logs from one day, or from one of its meals, onto another day and rebuilds that day's rollups
+    @Transactional
+    public int copyLogs(User user, LocalDate sourceDate, String selectedMeal, LocalDate targetDate, String targetMeal) {
+        int copied = foodLogRepository.copyLogs(user.getId(), sourceDate, selectedMeal, targetDate, targetMeal);
+        if (copied > 0) {
+            rollupService.rebuildDay(user.getId(), targetDate);
+            foodUsageService.recordCopiedLogs(user.getId(), sourceDate, selectedMeal, targetDate);
+        }
+        return copied;
+    }
+
+    // Moves every log of one meal to another day and meal, rebuilding the rollups of both days. The rebuild sums
+    // the days in the database, so the bulk update does not need to clear entities already loaded in the transaction
+    @Transactional
+    public int moveMeal(User user, LocalDate sourceDate, String selectedMeal, LocalDate targetDate, String targetMeal) {
+        int moved = foodLogRepository.moveMeal(user.getId(), sourceDate, selectedMeal, targetDate, targetMeal);
+        if (moved > 0) {
+            rollupService.rebuildDay(user.getId(), sourceDate);
+            if (!targetDate.equals(sourceDate)) {
+                rollupService.rebuildDay(user.getId(), targetDate);
+            }
+        }
+        return moved;
+    }
+
+    // Deletes every log of one meal of a user's day and rebuilds that day's rollups
+    @Transactional
+    public int deleteMeal(User user, LocalDate date, String selectedMeal) {
+        int deleted = foodLogRepository.deleteMeal(user.getId(), date, selectedMeal);
+        if (deleted > 0) {
+            rollupService.rebuildDay(user.getId(), date);
+        }
+        return deleted;
+    }
+
+    // Deletes a food log by ID and removes it from the day's rollup
+    @Transactional
     public void deleteFoodLog(Long foodLogId) {
-        foodLogRepository.deleteById(foodLogId);
+        foodLogRepository.findById(foodLogId).ifPresent(foodLog -> {
+            rollupService.removeLog(foodLog);
+            foodLogRepository.delete(foodLog);
+        });
     }
 
     // Retrieves the FoodItem associated with a specific FoodLog entry
     public FoodItem getFoodItemByFoodLogId(Long foodLogId) {
-        FoodLog foodLog = foodLogRepository.findById(foodLogId)
+        FoodLog foodLog = foodLogRepository.findWithFoodItemById(foodLogId)
             .orElseThrow(() -> new EntityNotFoundException("FoodLog not found"));
         return foodLog.getFoodItem();
     }
 
     // Retrieves the Recipe associated with a specific FoodLog entry
     public Recipe getRecipeByFoodLogId(Long foodLogId) {
-        FoodLog foodLog = foodLogRepository.findById(foodLogId)
+        FoodLog foodLog = foodLogRepository.findWithRecipeById(foodLogId)
                 .orElseThrow(() -> new EntityNotFoundException("FoodLog not found"));
         return foodLog.getRecipe();
     }    
@@ -273,7 +371,7 @@ public class FoodLogService {
     }
 
     // Maps FoodLog entity to FoodLogDTO
-    private FoodLogDTO mapToDTO(FoodLog foodLog) {
+    public FoodLogDTO mapToDTO(FoodLog foodLog) {
         FoodLogDTO dto = new FoodLogDTO();
         dto.setId(foodLog.getId());
         dto.setUserId(foodLog.getUser().getId());
@@ -288,48 +386,31 @@ public class FoodLogService {
         if (foodLog.getFoodItem() != null) {
             dto.setFoodItemId(foodLog.getFoodItem().getId());
             dto.setFoodItemName(foodLog.getFoodItem().getName());
-            dto.setCalories(foodLog.getFoodItem().getCalories());
-            dto.setProtein(foodLog.getFoodItem().getProtein());
-            dto.setCarbs(foodLog.getFoodItem().getCarbs());
-            dto.setFat(foodLog.getFoodItem().getFat());
-            dto.setTotalSugars(foodLog.getFoodItem().getTotalSugars());
-            dto.setAddedSugars(foodLog.getFoodItem().getAddedSugars());
-            dto.setTransFat(foodLog.getFoodItem().getTransFat());
-            dto.setSaturatedFat(foodLog.getFoodItem().getSaturatedFat());
-            dto.setPolyunsaturatedFat(foodLog.getFoodItem().getPolyunsaturatedFat());
-            dto.setMonounsaturatedFat(foodLog.getFoodItem().getMonounsaturatedFat());
-            dto.setCholesterol(foodLog.getFoodItem().getCholesterol());
-            dto.setFiber(foodLog.getFoodItem().getFiber());
-            dto.setCalcium(foodLog.getFoodItem().getCalcium());
-            dto.setIron(foodLog.getFoodItem().getIron());
-            dto.setSodium(foodLog.getFoodItem().getSodium());
-            dto.setPotassium(foodLog.getFoodItem().getPotassium());
-            dto.setVitaminA(foodLog.getFoodItem().getVitaminA());
-            dto.setVitaminC(foodLog.getFoodItem().getVitaminC());
-            dto.setVitaminD(foodLog.getFoodItem().getVitaminD());
         } else if (foodLog.getRecipe() != null) {
             dto.setRecipeId(foodLog.getRecipe().getId());  
             dto.setFoodItemName(foodLog.getRecipe().getRecipeName());  
-            dto.setCalories(foodLog.getRecipe().getCalories());
-            dto.setProtein(foodLog.getRecipe().getProtein());
-            dto.setCarbs(foodLog.getRecipe().getCarbs());
-            dto.setFat(foodLog.getRecipe().getFat());
-            dto.setTotalSugars(foodLog.getRecipe().getTotalSugars());
-            dto.setAddedSugars(foodLog.getRecipe().getAddedSugars());
-            dto.setTransFat(foodLog.getRecipe().getTransFat());
-            dto.setSaturatedFat(foodLog.getRecipe().getSaturatedFat());
-            dto.setPolyunsaturatedFat(foodLog.getRecipe().getPolyunsaturatedFat());
-            dto.setMonounsaturatedFat(foodLog.getRecipe().getMonounsaturatedFat());
-            dto.setCholesterol(foodLog.getRecipe().getCholesterol());
-            dto.setFiber(foodLog.getRecipe().getFiber());
-            dto.setCalcium(foodLog.getRecipe().getCalcium());
-            dto.setIron(foodLog.getRecipe().getIron());
-            dto.setSodium(foodLog.getRecipe().getSodium());
-            dto.setPotassium(foodLog.getRecipe().getPotassium());
-            dto.setVitaminA(foodLog.getRecipe().getVitaminA());
-            dto.setVitaminC(foodLog.getRecipe().getVitaminC());
-            dto.setVitaminD(foodLog.getRecipe().getVitaminD());
         }
+
+        // Nutrients come from the snapshot taken when the entry was logged
+        dto.setCalories(foodLog.getCalories());
+        dto.setProtein(foodLog.getProtein());
+        dto.setCarbs(foodLog.getCarbs());
+        dto.setFat(foodLog.getFat());
+        dto.setTotalSugars(foodLog.getTotalSugars());
+        dto.setAddedSugars(foodLog.getAddedSugars());
+        dto.setTransFat(foodLog.getTransFat());
+        dto.setSaturatedFat(foodLog.getSaturatedFat());
+        dto.setPolyunsaturatedFat(foodLog.getPolyunsaturatedFat());
+        dto.setMonounsaturatedFat(foodLog.getMonounsaturatedFat());
+        dto.setCholesterol(foodLog.getCholesterol());
+        dto.setFiber(foodLog.getFiber());
+        dto.setCalcium(foodLog.getCalcium());
+        dto.setIron(foodLog.getIron());
+        dto.setSodium(foodLog.getSodium());
+        dto.setPotassium(foodLog.getPotassium());
+        dto.setVitaminA(foodLog.getVitaminA());
+        dto.setVitaminC(foodLog.getVitaminC());
+        dto.setVitaminD(foodLog.getVitaminD());
         return dto;
     }
 
@@ -0,0 +1,173 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.model.FoodLog;
+import com.asmith.calmacro.model.FoodUsageId;
+import com.asmith.calmacro.model.Recipe;
+import com.asmith.calmacro.repository.FoodItemRepository;
+import com.asmith.calmacro.repository.FoodUsageRepository;
+import com.asmith.calmacro.repository.RecipeRepository;
+import com.asmith.calmacro.search.FoodNameIndex;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * FoodUsageService
+ * 
+ * This service keeps a recency-weighted usage score for every food item and recipe a user logs and
+ * ranks them into the user's frequent foods. Scores are updated as entries are logged, so reading the
+ * list is an index range read of the user's top scores rather than a scan of their log history.
+ */
+
+@Service
+public class FoodUsageService {
+
+    @Autowired
+    private FoodUsageRepository foodUsageRepository;
+
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FoodNameIndex foodNameIndex;
+
+    // Item types stored on usage rows
+    public static final String FOOD = "FOOD";
+    public static final String RECIPE = "RECIPE";
+
+    // A log's weight doubles every half-life, so a log this many days older counts half as much
+    private static final double HALF_LIFE_DAYS = 14.0;
+
+    // Fixed reference date for weights; must match the backfill in the V7 migration. Weights grow by half-lives
+    // since this date and stay well within double range for decades, only their ratios matter for ranking
+    private static final LocalDate WEIGHT_EPOCH = LocalDate.of(2024, 1, 1);
+
+    // Largest list that can be requested
+    private static final int MAX_LIMIT = 100;
+
+    // Adds a single food log to its user's usage
+    @Transactional
+    public void recordLog(FoodLog foodLog) {
+        recordLogs(List.of(foodLog));
+    }
+
+    // Adds food logs to their users' usage, with one update per distinct item
+    @Transactional
+    public void recordLogs(List<FoodLog> foodLogs) {
+        Map<FoodUsageId, List<FoodLog>> logsByItem = new LinkedHashMap<>();
+        for (FoodLog foodLog : foodLogs) {
+            FoodUsageId key = usageKey(foodLog);
+            if (key != null) {
+                logsByItem.computeIfAbsent(key, k -> new ArrayList<>()).add(foodLog);
+            }
+        }
+
+        logsByItem.forEach((key, logs) -> {
+            double weight = 0.0;
+            LocalDate lastLogged = logs.get(0).getLogDate();
+            for (FoodLog foodLog : logs) {
+                weight += weightOf(foodLog.getLogDate());
+                if (foodLog.getLogDate().isAfter(lastLogged)) {
+                    lastLogged = foodLog.getLogDate();
+                }
+            }
+            FoodLog first = logs.get(0);
+            foodUsageRepository.recordUsage(first.getUser().getId(), key.getItemType(), key.getItemId(), weight,
+                    logs.size(), lastLogged);
+
+            // Keep the food's rank among name suggestions in step
+            if (FOOD.equals(key.getItemType())) {
+                foodNameIndex.addPopularity(key.getItemId(), weight);
+            }
+        });
+    }
+
+    // Adds the items of a copied day or meal to the user's usage as logs on the target date
+    @Transactional
+    public void recordCopiedLogs(Long userId, LocalDate sourceDate, String selectedMeal, LocalDate targetDate) {
+        foodUsageRepository.recordCopiedUsage(userId, sourceDate, selectedMeal, targetDate, weightOf(targetDate));
+    }
+
+    // Retrieves a user's most frequently logged food items, topped up with their newest foods when there are too few
+    public List<FoodItem> getFrequentFoodItems(Long userId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<Long> ids = new LinkedHashSet<>(foodUsageRepository.findTopItemIds(userId, FOOD, PageRequest.of(0, size)));
+
+        Map<Long, FoodItem> foodItems = foodItemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+        List<FoodItem> ranked = ids.stream().map(foodItems::get).filter(item -> item != null).collect(Collectors.toList());
+
+        for (FoodItem foodItem : foodItemRepository.findTop20ByUserIdOrderByIdDesc(userId)) {
+            if (ranked.size() >= size) {
+                break;
+            }
+            if (!foodItems.containsKey(foodItem.getId())) {
+                ranked.add(foodItem);
+            }
+        }
+        return ranked;
+    }
+
+    // Retrieves a user's most frequently logged recipes, topped up with their newest recipes when there are too few
+    public List<Recipe> getFrequentRecipes(Long userId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<Long> ids = new LinkedHashSet<>(foodUsageRepository.findTopItemIds(userId, RECIPE, PageRequest.of(0, size)));
+
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        List<Recipe> ranked = ids.stream().map(recipes::get).filter(recipe -> recipe != null).collect(Collectors.toList());
+
+        for (Recipe recipe : recipeRepository.findTop20ByUserIdOrderByIdDesc(userId)) {
+            if (ranked.size() >= size) {
+                break;
+            }
+            if (!recipes.containsKey(recipe.getId())) {
+                ranked.add(recipe);
+            }
+        }
+        return ranked;
+    }
+
+    // Removes a deleted food item or recipe from every user's usage
+    @Transactional
+    public void deleteItem(String itemType, Long itemId) {
+        foodUsageRepository.deleteByItem(itemType, itemId);
+    }
+
+    // Removes all usage belonging to a user
+    @Transactional
+    public void deleteUserUsage(Long userId) {
+        foodUsageRepository.deleteByUserId(userId);
+    }
+
+    // Builds the usage key of a food log, or null for entries such as water that log no item
+    private FoodUsageId usageKey(FoodLog foodLog) {
+        if (foodLog.getFoodItem() != null) {
+            return new FoodUsageId(foodLog.getUser().getId(), FOOD, foodLog.getFoodItem().getId());
+        } else if (foodLog.getRecipe() != null) {
+            return new FoodUsageId(foodLog.getUser().getId(), RECIPE, foodLog.getRecipe().getId());
+        }
+        return null;
+    }
+
+    // Computes the weight of a log on the given date
+    private double weightOf(LocalDate logDate) {
+        return Math.pow(2.0, (logDate.toEpochDay() - WEIGHT_EPOCH.toEpochDay()) / HALF_LIFE_DAYS);
+    }
+}
@@ -0,0 +1,96 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.dto.DailyNutrientTotals;
+import com.asmith.calmacro.dto.NutrientTrendDTO;
+import com.asmith.calmacro.repository.DailyNutrientRollupRepository;
+import com.asmith.calmacro.util.NutrientVector;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NutrientTrendService
+ *
+ * This service produces nutrient totals over a date range, grouped by day, week, or month.
+ * Per-day sums are computed in the database from the daily rollups, so a long range returns
+ * one small row per logged day, which is then folded into weeks or months when requested.
+ */
+
+@Service
+public class NutrientTrendService {
+
+    @Autowired
+    private DailyNutrientRollupRepository rollupRepository;
+
+    // Retrieves nutrient totals for each day, week, or month of a date range that has logs
+    public List<NutrientTrendDTO> getTrend(Long userId, LocalDate startDate, LocalDate endDate, String granularity) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        String period = granularity.toLowerCase();
+        if (!period.equals("day") && !period.equals("week") && !period.equals("month")) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+
+        List<NutrientTrendDTO> trend = new ArrayList<>();
+        NutrientVector totals = new NutrientVector();
+        LocalDate currentStart = null;
+        int daysLogged = 0;
+
+        // Days arrive in date order, so each period is complete once a day from the next one appears
+        for (DailyNutrientTotals day : rollupRepository.sumByDay(userId, startDate, endDate)) {
+            LocalDate periodStart = periodStart(day.getLogDate(), period);
+            if (currentStart != null && !periodStart.equals(currentStart)) {
+                trend.add(toTrend(currentStart, period, daysLogged, totals, startDate, endDate));
+                totals.clear();
+                daysLogged = 0;
+            }
+            currentStart = periodStart;
+            totals.addScaled(day, 1.0).addWater(day.getWater());
+            daysLogged++;
+        }
+        if (currentStart != null) {
+            trend.add(toTrend(currentStart, period, daysLogged, totals, startDate, endDate));
+        }
+        return trend;
+    }
+
+    // Finds the first day of the period containing the given date
+    private LocalDate periodStart(LocalDate date, String period) {
+        if (period.equals("week")) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        } else if (period.equals("month")) {
+            return date.withDayOfMonth(1);
+        }
+        return date;
+    }
+
+    // Finds the last day of the period starting on the given date
+    private LocalDate periodEnd(LocalDate periodStart, String period) {
+        if (period.equals("week")) {
+            return periodStart.plusDays(6);
+        } else if (period.equals("month")) {
+            return periodStart.with(TemporalAdjusters.lastDayOfMonth());
+        }
+        return periodStart;
+    }
+
+    // Builds the DTO for one period, clipping its bounds to the requested range
+    private NutrientTrendDTO toTrend(LocalDate periodStart, String period, int daysLogged, NutrientVector totals,
+                                     LocalDate rangeStart, LocalDate rangeEnd) {
+        LocalDate periodEnd = periodEnd(periodStart, period);
+
+        NutrientTrendDTO dto = new NutrientTrendDTO();
+        dto.setPeriodStart(periodStart.isBefore(rangeStart) ? rangeStart : periodStart);
+        dto.setPeriodEnd(periodEnd.isAfter(rangeEnd) ? rangeEnd : periodEnd);
+        dto.setDaysLogged(daysLogged);
+        dto.setTotals(totals.toMap());
+        return dto;
+    }
+}
@@ -0,0 +1,214 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.exception.ResourceNotFoundException;
+import com.asmith.calmacro.model.FoodItem;
+import com.asmith.calmacro.model.NutrientProfile;
+import com.asmith.calmacro.model.Recipe;
+import com.asmith.calmacro.model.RecipeItem;
+import com.asmith.calmacro.repository.FoodItemRepository;
+import com.asmith.calmacro.repository.RecipeItemRepository;
+import com.asmith.calmacro.repository.RecipeRepository;
+import com.asmith.calmacro.util.NutrientTotals;
+import com.asmith.calmacro.util.NutrientVector;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * RecipeNutritionService
+ *
+ * This service keeps a recipe's stored nutrient totals and total weight in step with its
+ * ingredients. Adding, removing, or changing one ingredient applies that ingredient's exact
+ * contribution to every tracked nutrient, so a change costs the same however many ingredients
+ * the recipe has. Full recomputations and single-ingredient changes both go through
+ * NutrientTotals and are rounded to the column scale the same way. Totals can still drift, for
+ * example when a food item used by a recipe is edited, so recipes can also be verified in bulk
+ * against a full recomputation and repaired under a row lock.
+ */
+
+@Service
+public class RecipeNutritionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeNutritionService.class);
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeItemRepository recipeItemRepository;
+
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Adds an ingredient's nutrients and weight to a recipe's totals
+    public void itemAdded(Recipe recipe, NutrientProfile food, BigDecimal quantity) {
+        applyDelta(recipe, food, valueOf(quantity));
+    }
+
+    // Takes an ingredient's nutrients and weight out of a recipe's totals
+    public void itemRemoved(Recipe recipe, NutrientProfile food, BigDecimal quantity) {
+        applyDelta(recipe, food, valueOf(quantity).negate());
+    }
+
+    // Applies the change in an ingredient's quantity to a recipe's totals
+    public void itemQuantityChanged(Recipe recipe, NutrientProfile food, BigDecimal oldQuantity, BigDecimal newQuantity) {
+        applyDelta(recipe, food, valueOf(newQuantity).subtract(valueOf(oldQuantity)));
+    }
+
+    // Recomputes the given recipes from their ingredients and compares the result with their stored totals.
+    // Recipes whose totals differ by more than the tolerance are returned, and corrected when repair is set
+    @Transactional
+    public List<Long> verifyRecipes(List<Long> recipeIds, BigDecimal tolerance, boolean repair) {
+        List<Recipe> recipes = recipeRepository.findAllById(recipeIds);
+
+        // Load the ingredients of every recipe, and the food items they use, in one query each
+        Map<Long, List<RecipeItem>> itemsByRecipe = recipeItemRepository.findByRecipeIdIn(recipeIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRecipe().getId()));
+        Set<Long> foodItemIds = itemsByRecipe.values().stream()
+                .flatMap(List::stream)
+                .map(RecipeItem::getFoodItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, FoodItem> foodItems = foodItemRepository.findAllById(foodItemIds).stream()
+                .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+
+        List<Long> drifted = new ArrayList<>();
+        NutrientTotals expected = new NutrientTotals();
+        NutrientTotals stored = new NutrientTotals();
+        for (Recipe recipe : recipes) {
+            expected.clear();
+            stored.clear();
+            BigDecimal expectedWeight = sumItems(itemsByRecipe.getOrDefault(recipe.getId(), List.of()), foodItems, expected);
+            stored.addScaled(recipe, BigDecimal.ONE);
+
+            BigDecimal drift = valueOf(recipe.getTotalWeight()).subtract(expectedWeight).abs();
+            for (int i = 0; i < NutrientVector.WATER; i++) {
+                drift = drift.max(stored.get(i).subtract(expected.decimal(i)).abs());
+            }
+            if (drift.compareTo(tolerance) <= 0) {
+                continue;
+            }
+
+            drifted.add(recipe.getId());
+            logger.warn("Recipe {} nutrient totals drifted by up to {} from its ingredients", recipe.getId(), drift);
+        }
+
+        // Repair from a fresh read of each drifted recipe, locked so no ingredient change lands between
+        // reading its items and saving the recomputed totals
+        if (repair && !drifted.isEmpty()) {
+            entityManager.clear();
+            for (Long recipeId : drifted) {
+                repairRecipe(recipeId);
+            }
+        }
+        return drifted;
+    }
+
+    // Recomputes a recipe's totals and total weight from all of the given ingredients
+    public void recalculate(Recipe recipe, List<RecipeItem> items, Map<Long, FoodItem> foodItems) {
+        for (RecipeItem item : items) {
+            if (!foodItems.containsKey(item.getFoodItemId())) {
+                throw new ResourceNotFoundException("FoodItem not found");
+            }
+        }
+        NutrientTotals totals = new NutrientTotals();
+        recipe.setTotalWeight(rounded(sumItems(items, foodItems, totals)));
+        applyTotals(recipe, totals);
+    }
+
+    // Locks a recipe, re-reads its ingredients and their food items, and saves totals recomputed from them
+    private void repairRecipe(Long recipeId) {
+        Recipe recipe = recipeRepository.findByIdForUpdate(recipeId).orElse(null);
+        if (recipe == null) {
+            return;
+        }
+        List<RecipeItem> items = recipeItemRepository.findByRecipeIdIn(List.of(recipeId));
+        Set<Long> foodItemIds = items.stream()
+                .map(RecipeItem::getFoodItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, FoodItem> foodItems = foodItemRepository.findAllById(foodItemIds).stream()
+                .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+
+        NutrientTotals totals = new NutrientTotals();
+        recipe.setTotalWeight(rounded(sumItems(items, foodItems, totals)));
+        applyTotals(recipe, totals);
+        recipeRepository.save(recipe);
+    }
+
+    // Adds each ingredient's nutrients to the totals and returns the ingredients' total weight.
+    // Ingredients whose food item no longer exists count toward the weight only
+    private static BigDecimal sumItems(List<RecipeItem> items, Map<Long, FoodItem> foodItems, NutrientTotals totals) {
+        BigDecimal weight = BigDecimal.ZERO;
+        for (RecipeItem item : items) {
+            BigDecimal quantity = valueOf(item.getQuantity());
+            weight = weight.add(quantity);
+            FoodItem foodItem = foodItems.get(item.getFoodItemId());
+            if (foodItem != null) {
+                totals.addScaled(foodItem, quantity);
+            }
+        }
+        return weight;
+    }
+
+    // Copies full nutrient totals onto a recipe, rounded to the column scale
+    private static void applyTotals(Recipe recipe, NutrientTotals totals) {
+        recipe.setCalories(totals.decimal(NutrientVector.CALORIES));
+        recipe.setCarbs(totals.decimal(NutrientVector.CARBS));
+        recipe.setFat(totals.decimal(NutrientVector.FAT));
+        recipe.setProtein(totals.decimal(NutrientVector.PROTEIN));
+        recipe.setAddedSugars(totals.decimal(NutrientVector.ADDED_SUGARS));
+        recipe.setTotalSugars(totals.decimal(NutrientVector.TOTAL_SUGARS));
+        recipe.setTransFat(totals.decimal(NutrientVector.TRANS_FAT));
+        recipe.setSaturatedFat(totals.decimal(NutrientVector.SATURATED_FAT));
+        recipe.setPolyunsaturatedFat(totals.decimal(NutrientVector.POLYUNSATURATED_FAT));
+        recipe.setMonounsaturatedFat(totals.decimal(NutrientVector.MONOUNSATURATED_FAT));
+        recipe.setCholesterol(totals.decimal(NutrientVector.CHOLESTEROL));
+        recipe.setFiber(totals.decimal(NutrientVector.FIBER));
+        recipe.setCalcium(totals.decimal(NutrientVector.CALCIUM));
+        recipe.setIron(totals.decimal(NutrientVector.IRON));
+        recipe.setSodium(totals.decimal(NutrientVector.SODIUM));
+        recipe.setPotassium(totals.decimal(NutrientVector.POTASSIUM));
+        recipe.setVitaminA(totals.decimal(NutrientVector.VITAMIN_A));
+        recipe.setVitaminC(totals.decimal(NutrientVector.VITAMIN_C));
+        recipe.setVitaminD(totals.decimal(NutrientVector.VITAMIN_D));
+    }
+
+    // Adds the food's nutrients times the quantity change to every total, and the quantity change to the weight.
+    // The sums are exact and rounded once to the column scale, the same as a full recomputation
+    private static void applyDelta(Recipe recipe, NutrientProfile food, BigDecimal quantity) {
+        NutrientTotals totals = new NutrientTotals()
+                .addScaled(recipe, BigDecimal.ONE)
+                .addScaled(food, quantity);
+        recipe.setTotalWeight(rounded(valueOf(recipe.getTotalWeight()).add(quantity)));
+        applyTotals(recipe, totals);
+    }
+
+    // Rounds a weight to the column scale
+    private static BigDecimal rounded(BigDecimal value) {
+        return value.setScale(NutrientTotals.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal valueOf(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,98 @@
+package com.asmith.calmacro.service;
+
+import com.asmith.calmacro.repository.RecipeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RecipeNutritionVerifyJob
+ *
+ * Scheduled job that checks the nutrient totals kept incrementally on every recipe against a
+ * full recomputation from its ingredients, and reports the recipes that have drifted. Recipes
+ * are read in ID order one page at a time, with one query each for the page's recipes, their
+ * ingredients, and the food items used, and each page is checked in its own transaction.
+ * Drifted recipes are corrected only when repair is enabled.
+ */
+
+@Component
+public class RecipeNutritionVerifyJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeNutritionVerifyJob.class);
+
+    // Number of recipes checked per page
+    private static final int PAGE_SIZE = 200;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeNutritionService recipeNutritionService;
+
+    // Largest difference in any total that is not reported; stored totals are rounded to two decimal places
+    @Value("${calmacro.recipe-verify.tolerance:0.05}")
+    private BigDecimal tolerance;
+
+    // Whether drifted recipes are corrected as well as reported
+    @Value("${calmacro.recipe-verify.repair:false}")
+    private boolean repair;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Result of the last run
+    private volatile Map<String, Object> lastReport = Map.of("state", "never run");
+
+    // Verifies every recipe early each morning server time
+    @Scheduled(cron = "${calmacro.recipe-verify.cron:0 45 3 * * *}")
+    public void verifyAllRecipes() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long afterId = 0L;
+        int checked = 0;
+        int drifted = 0;
+        try {
+            List<Long> page = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            while (!page.isEmpty()) {
+                try {
+                    drifted += recipeNutritionService.verifyRecipes(page, tolerance, repair).size();
+                } catch (Exception e) {
+                    logger.error("Failed to verify recipes {} to {}", page.get(0), page.get(page.size() - 1), e);
+                }
+                checked += page.size();
+                afterId = page.get(page.size() - 1);
+                page = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            }
+        } finally {
+            running.set(false);
+        }
+        logger.info("Verified {} recipes, {} drifted{}", checked, drifted, repair ? " and were repaired" : "");
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("state", "completed");
+        report.put("checked", checked);
+        report.put("drifted", drifted);
+        report.put("repaired", repair ? drifted : 0);
+        report.put("startedAt", startedAt);
+        report.put("finishedAt", LocalDateTime.now());
+        lastReport = report;
+    }
+
+    // Reports the counts and timing of the last run
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+}
@@ -4,21 +4,33 @@ import com.asmith.calmacro.repository.RecipeRepository;
 import com.asmith.calmacro.repository.FoodItemRepository;
 import com.asmith.calmacro.repository.FoodLogRepository;
 import com.asmith.calmacro.repository.RecipeItemRepository;
+import com.asmith.calmacro.dto.LoggedDay;
+import com.asmith.calmacro.dto.PageResponse;
 import com.asmith.calmacro.dto.RecipeDTO;
 import com.asmith.calmacro.dto.RecipeItemDTO;
+import com.asmith.calmacro.dto.RecipeSummary;
 import com.asmith.calmacro.model.FoodItem;
 import com.asmith.calmacro.model.Recipe;
 import com.asmith.calmacro.model.RecipeItem;
 import com.asmith.calmacro.exception.ResourceNotFoundException;
+import com.asmith.calmacro.search.RecipeNameIndex;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;  
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * RecipeService
@@ -42,6 +54,22 @@ public class RecipeService {
 
     @Autowired
     private FoodLogRepository foodLogRepository;
+
+    @Autowired
+    private DailyNutrientRollupService rollupService;
+
+    @Autowired
+    private RecipeNutritionService recipeNutritionService;
+
+    @Autowired
+    private FoodUsageService foodUsageService;
+
+    @Autowired
+    private RecipeNameIndex recipeNameIndex;
+
+    // Largest number of results a fuzzy search returns, and the largest page of search results
+    private static final int MAX_FUZZY_RESULTS = 100;
+    private static final int MAX_PAGE_SIZE = 100;
     
     // Adds a new recipe to the system
     @Transactional
@@ -52,14 +80,35 @@ public class RecipeService {
     // Updates an existing recipe by its ID
     @Transactional
     public Recipe updateRecipe(Long recipeId, RecipeDTO recipeDTO) {
-        Recipe existingRecipe = recipeRepository.findById(recipeId)
+        Recipe existingRecipe = recipeRepository.findByIdForUpdate(recipeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
 
+        String oldName = existingRecipe.getRecipeName();
+
         // Clear existing recipe items and delete them from the database
         existingRecipe.getRecipeItems().clear();
         recipeItemRepository.deleteByRecipe(existingRecipe);
 
-        return saveRecipe(existingRecipe, recipeDTO);
+        Recipe savedRecipe = saveRecipe(existingRecipe, recipeDTO);
+        markIfRenamed(savedRecipe, oldName);
+        return savedRecipe;
+    }
+
+    // Updates the name, directions, serving size, and state of an existing recipe, leaving its items as they are
+    @Transactional
+    public Recipe updateRecipeDetails(Long recipeId, RecipeDTO recipeDTO) {
+        Recipe existingRecipe = recipeRepository.findById(recipeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
+        String oldName = existingRecipe.getRecipeName();
+
+        existingRecipe.setRecipeName(recipeDTO.getRecipeName());
+        existingRecipe.setDirection(recipeDTO.getDirection());
+        existingRecipe.setServingSize(recipeDTO.getServingSize());
+        existingRecipe.setState(recipeDTO.getState());
+
+        Recipe savedRecipe = save(existingRecipe);
+        markIfRenamed(savedRecipe, oldName);
+        return savedRecipe;
     }
 
     // Reverts a recipe to its original state from the given DTO
@@ -68,6 +117,8 @@ public class RecipeService {
         Recipe existingRecipe = recipeRepository.findById(recipeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
 
+        String oldName = existingRecipe.getRecipeName();
+
         // Update recipe details from the original recipe data
         existingRecipe.setUserId(recipeDTO.getUserId());
         existingRecipe.setRecipeName(recipeDTO.getRecipeName());
@@ -91,14 +142,26 @@ public class RecipeService {
 
         // Set the new recipe items  and save the recipe
         existingRecipe.setRecipeItems(newRecipeItems);
-        return recipeRepository.save(existingRecipe);
+        Recipe savedRecipe = recipeRepository.save(existingRecipe);
+        recipeNameIndex.put(savedRecipe);
+        markIfRenamed(savedRecipe, oldName);
+        return savedRecipe;
+    }
+
+    // Gives the days that log a recipe a new version when its name changed, as their listed entries show the name
+    private void markIfRenamed(Recipe recipe, String oldName) {
+        if (!Objects.equals(oldName, recipe.getRecipeName())) {
+            rollupService.recipeRenamed(recipe.getId());
+        }
     }
 
     // Adds a new recipe item (ingredient) to an existing recipe
     @Transactional
     public Recipe addRecipeItem(Long recipeId, RecipeItemDTO itemDTO) {
-        Recipe recipe = recipeRepository.findById(recipeId)
+        Recipe recipe = recipeRepository.findByIdForUpdate(recipeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
+        FoodItem foodItem = foodItemRepository.findById(itemDTO.getFoodItemId())
+                .orElseThrow(() -> new ResourceNotFoundException("FoodItem not found"));
 
         // Create the RecipeItem and add it to the recipe
         RecipeItem recipeItem = new RecipeItem();
@@ -112,30 +175,57 @@ public class RecipeService {
         recipeItemRepository.save(recipeItem);
         recipe.getRecipeItems().add(recipeItem);
 
-        // Update the recipe's nutritional values based on the new item
-        FoodItem foodItem = foodItemRepository.findById(itemDTO.getFoodItemId())
+        // Add the new item's nutrients and weight to the recipe's totals
+        recipeNutritionService.itemAdded(recipe, foodItem, itemDTO.getQuantity());
+
+        return recipeRepository.save(recipe);
+    }
+
+    // Changes the food, quantity, or unit of a recipe item and updates the recipe's totals by the difference.
+    // Fields left out of the DTO keep their current values
+    @Transactional
+    public Recipe updateRecipeItem(Long recipeId, Long recipeItemId, RecipeItemDTO itemDTO) {
+        Recipe recipe = recipeRepository.findByIdForUpdate(recipeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
+        RecipeItem recipeItem = findRecipeItem(recipe, recipeItemId);
+
+        Long oldFoodItemId = recipeItem.getFoodItemId();
+        BigDecimal oldQuantity = recipeItem.getQuantity();
+        Long newFoodItemId = itemDTO.getFoodItemId() != null ? itemDTO.getFoodItemId() : oldFoodItemId;
+        BigDecimal newQuantity = itemDTO.getQuantity() != null ? itemDTO.getQuantity() : oldQuantity;
+        if (newFoodItemId == null) {
+            throw new ResourceNotFoundException("FoodItem not found");
+        }
+        FoodItem newFoodItem = foodItemRepository.findById(newFoodItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("FoodItem not found"));
 
-        recipe.setTotalWeight(recipe.getTotalWeight().add(itemDTO.getQuantity()));
-        recipe.setCalories(recipe.getCalories().add(foodItem.getCalories().multiply(itemDTO.getQuantity())));
-        recipe.setCarbs(recipe.getCarbs().add(foodItem.getCarbs().multiply(itemDTO.getQuantity())));
-        recipe.setFat(recipe.getFat().add(foodItem.getFat().multiply(itemDTO.getQuantity())));
-        recipe.setProtein(recipe.getProtein().add(foodItem.getProtein().multiply(itemDTO.getQuantity())));
-        recipe.setAddedSugars(recipe.getAddedSugars().add(foodItem.getAddedSugars().multiply(itemDTO.getQuantity())));
-        recipe.setTotalSugars(recipe.getTotalSugars().add(foodItem.getTotalSugars().multiply(itemDTO.getQuantity())));
-        recipe.setTransFat(recipe.getTransFat().add(foodItem.getTransFat().multiply(itemDTO.getQuantity())));
-        recipe.setSaturatedFat(recipe.getSaturatedFat().add(foodItem.getSaturatedFat().multiply(itemDTO.getQuantity())));
-        recipe.setPolyunsaturatedFat(recipe.getPolyunsaturatedFat().add(foodItem.getPolyunsaturatedFat().multiply(itemDTO.getQuantity())));
-        recipe.setMonounsaturatedFat(recipe.getMonounsaturatedFat().add(foodItem.getMonounsaturatedFat().multiply(itemDTO.getQuantity())));
-        recipe.setCholesterol(recipe.getCholesterol().add(foodItem.getCholesterol().multiply(itemDTO.getQuantity())));
-        recipe.setFiber(recipe.getFiber().add(foodItem.getFiber().multiply(itemDTO.getQuantity())));
-        recipe.setCalcium(recipe.getCalcium().add(foodItem.getCalcium().multiply(itemDTO.getQuantity())));
-        recipe.setIron(recipe.getIron().add(foodItem.getIron().multiply(itemDTO.getQuantity())));
-        recipe.setSodium(recipe.getSodium().add(foodItem.getSodium().multiply(itemDTO.getQuantity())));
-        recipe.setPotassium(recipe.getPotassium().add(foodItem.getPotassium().multiply(itemDTO.getQuantity())));
-        recipe.setVitaminA(recipe.getVitaminA().add(foodItem.getVitaminA().multiply(itemDTO.getQuantity())));
-        recipe.setVitaminC(recipe.getVitaminC().add(foodItem.getVitaminC().multiply(itemDTO.getQuantity())));
-        recipe.setVitaminD(recipe.getVitaminD().add(foodItem.getVitaminD().multiply(itemDTO.getQuantity())));
+        // Update the item itself
+        recipeItem.setFoodItemId(newFoodItemId);
+        recipeItem.setQuantity(newQuantity);
+        if (itemDTO.getFoodName() != null) {
+            recipeItem.setFoodName(itemDTO.getFoodName());
+        }
+        if (itemDTO.getUnit() != null) {
+            recipeItem.setUnit(itemDTO.getUnit());
+        }
+        if (itemDTO.getUnitQuantity() != null) {
+            recipeItem.setUnitQuantity(itemDTO.getUnitQuantity());
+        }
+        recipeItemRepository.save(recipeItem);
+
+        // Apply the difference to the recipe's totals
+        if (newFoodItemId.equals(oldFoodItemId)) {
+            recipeNutritionService.itemQuantityChanged(recipe, newFoodItem, oldQuantity, newQuantity);
+        } else {
+            Optional<FoodItem> oldFoodItem = oldFoodItemId != null ? foodItemRepository.findById(oldFoodItemId) : Optional.empty();
+            if (oldFoodItem.isPresent()) {
+                recipeNutritionService.itemRemoved(recipe, oldFoodItem.get(), oldQuantity);
+                recipeNutritionService.itemAdded(recipe, newFoodItem, newQuantity);
+            } else {
+                // Without the old food's values there is no difference to apply, so recompute from every item
+                recalculateRecipeNutritionalValues(recipe);
+            }
+        }
 
         return recipeRepository.save(recipe);
     }
@@ -148,34 +238,17 @@ public class RecipeService {
         recipe.setDirection(recipeDTO.getDirection());
         recipe.setState(recipeDTO.getState());
     
-        // Initialize nutritional values and recipe items
+        // Build the recipe items from the DTO
         List<RecipeItem> recipeItems = new ArrayList<>(); // List to hold the recipe items
-        BigDecimal totalWeight = BigDecimal.ZERO;
-        BigDecimal totalCalories = BigDecimal.ZERO;
-        BigDecimal totalCarbs = BigDecimal.ZERO;
-        BigDecimal totalFat = BigDecimal.ZERO;
-        BigDecimal totalProtein = BigDecimal.ZERO;
-        BigDecimal totalAddedSugars = BigDecimal.ZERO;
-        BigDecimal totalTotalSugars = BigDecimal.ZERO;
-        BigDecimal totalTransFat = BigDecimal.ZERO;
-        BigDecimal totalSaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalPolyunsaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalMonounsaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalCholesterol = BigDecimal.ZERO;
-        BigDecimal totalFiber = BigDecimal.ZERO;
-        BigDecimal totalCalcium = BigDecimal.ZERO;
-        BigDecimal totalIron = BigDecimal.ZERO;
-        BigDecimal totalSodium = BigDecimal.ZERO;
-        BigDecimal totalPotassium = BigDecimal.ZERO;
-        BigDecimal totalVitaminA = BigDecimal.ZERO;
-        BigDecimal totalVitaminC = BigDecimal.ZERO;
-        BigDecimal totalVitaminD = BigDecimal.ZERO;
-    
-        // Process each recipe item in the DTO
+        Map<Long, FoodItem> foodItems = Map.of();
         if (recipeDTO.getRecipeItems() != null) {
-            // Loop through each RecipeItemDTO in the provided DTO
+            // Look up every ingredient's FoodItem in one query
+            foodItems = findFoodItems(recipeDTO.getRecipeItems().stream()
+                    .map(RecipeItemDTO::getFoodItemId)
+                    .collect(Collectors.toList()));
+
+            // Create a new RecipeItem for each item in the DTO
             for (RecipeItemDTO itemDTO : recipeDTO.getRecipeItems()) {
-                // Create a new RecipeItem for each item in the DTO
                 RecipeItem recipeItem = new RecipeItem();
                 recipeItem.setFoodItemId(itemDTO.getFoodItemId());
                 recipeItem.setFoodName(itemDTO.getFoodName());
@@ -184,60 +257,17 @@ public class RecipeService {
                 recipeItem.setUnitQuantity(itemDTO.getUnitQuantity());
                 recipeItem.setRecipe(recipe);
                 recipeItems.add(recipeItem);
-    
-                // Retrieve the corresponding FoodItem from the repository based on FoodItem ID
-                FoodItem foodItem = foodItemRepository.findById(itemDTO.getFoodItemId())
-                        .orElseThrow(() -> new ResourceNotFoundException("FoodItem not found"));
-
-                // Accumulate the nutritional values based on the quantity of the current RecipeItem
-                totalWeight = totalWeight.add(itemDTO.getQuantity());
-                totalCalories = totalCalories.add(foodItem.getCalories().multiply(itemDTO.getQuantity()));
-                totalCarbs = totalCarbs.add(foodItem.getCarbs().multiply(itemDTO.getQuantity()));
-                totalFat = totalFat.add(foodItem.getFat().multiply(itemDTO.getQuantity()));
-                totalProtein = totalProtein.add(foodItem.getProtein().multiply(itemDTO.getQuantity()));
-                totalAddedSugars = totalAddedSugars.add(foodItem.getAddedSugars().multiply(itemDTO.getQuantity()));
-                totalTotalSugars = totalTotalSugars.add(foodItem.getTotalSugars().multiply(itemDTO.getQuantity()));
-                totalTransFat = totalTransFat.add(foodItem.getTransFat().multiply(itemDTO.getQuantity()));
-                totalSaturatedFat = totalSaturatedFat.add(foodItem.getSaturatedFat().multiply(itemDTO.getQuantity()));
-                totalPolyunsaturatedFat = totalPolyunsaturatedFat.add(foodItem.getPolyunsaturatedFat().multiply(itemDTO.getQuantity()));
-                totalMonounsaturatedFat = totalMonounsaturatedFat.add(foodItem.getMonounsaturatedFat().multiply(itemDTO.getQuantity()));
-                totalCholesterol = totalCholesterol.add(foodItem.getCholesterol().multiply(itemDTO.getQuantity()));
-                totalFiber = totalFiber.add(foodItem.getFiber().multiply(itemDTO.getQuantity()));
-                totalCalcium = totalCalcium.add(foodItem.getCalcium().multiply(itemDTO.getQuantity()));
-                totalIron = totalIron.add(foodItem.getIron().multiply(itemDTO.getQuantity()));
-                totalSodium = totalSodium.add(foodItem.getSodium().multiply(itemDTO.getQuantity()));
-                totalPotassium = totalPotassium.add(foodItem.getPotassium().multiply(itemDTO.getQuantity()));
-                totalVitaminA = totalVitaminA.add(foodItem.getVitaminA().multiply(itemDTO.getQuantity()));
-                totalVitaminC = totalVitaminC.add(foodItem.getVitaminC().multiply(itemDTO.getQuantity()));
-                totalVitaminD = totalVitaminD.add(foodItem.getVitaminD().multiply(itemDTO.getQuantity()));
             }
         }
-        
-        // Update the recipe's nutritional values based on the totals
-        recipe.setTotalWeight(totalWeight);
+
+        // Compute the recipe's nutritional values from its items
+        recipeNutritionService.recalculate(recipe, recipeItems, foodItems);
         recipe.setRecipeItems(recipeItems);
-        recipe.setCalories(totalCalories);
-        recipe.setCarbs(totalCarbs);
-        recipe.setFat(totalFat);
-        recipe.setProtein(totalProtein);
-        recipe.setAddedSugars(totalAddedSugars);
-        recipe.setTotalSugars(totalTotalSugars);
-        recipe.setTransFat(totalTransFat);
-        recipe.setSaturatedFat(totalSaturatedFat);
-        recipe.setPolyunsaturatedFat(totalPolyunsaturatedFat);
-        recipe.setMonounsaturatedFat(totalMonounsaturatedFat);
-        recipe.setCholesterol(totalCholesterol);
-        recipe.setFiber(totalFiber);
-        recipe.setCalcium(totalCalcium);
-        recipe.setIron(totalIron);
-        recipe.setSodium(totalSodium);
-        recipe.setPotassium(totalPotassium);
-        recipe.setVitaminA(totalVitaminA);
-        recipe.setVitaminC(totalVitaminC);
-        recipe.setVitaminD(totalVitaminD);
     
-        // Save the recipe and return the saved object
-        return recipeRepository.save(recipe);
+        // Save the recipe, reindex its name, and return the saved object
+        Recipe savedRecipe = recipeRepository.save(recipe);
+        recipeNameIndex.put(savedRecipe);
+        return savedRecipe;
     }
 
     // Retrieves a recipe by its ID
@@ -250,9 +280,46 @@ public class RecipeService {
         return recipeRepository.findByUserId(userId);
     }
 
-    // Retrieves a list of recipes by recipe name and user ID, ignoring case
-    public List<Recipe> getRecipesByRecipeNameAndUserId(String recipeName, Long userId) { 
-        return recipeRepository.findByRecipeNameContainingIgnoreCaseAndUserId(recipeName, userId);
+    // Retrieves the first recipes, by ID, with the given user ID whose names contain the search, ignoring case
+    public List<Recipe> getRecipesByRecipeNameAndUserId(String recipeName, Long userId, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return recipeRepository.findByRecipeNameContainingIgnoreCaseAndUserId(recipeName, userId,
+                PageRequest.of(0, limit, Sort.by("id")));
+    }
+
+    // Retrieves one page of summaries of a user's recipes whose names contain the search, ignoring case
+    public PageResponse<RecipeSummary> searchPage(String recipeName, Long userId, int page, int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Page<RecipeSummary> result = recipeRepository.findByUserIdAndRecipeNameContainingIgnoreCase(userId, recipeName,
+                PageRequest.of(page, size, Sort.by("id")));
+
+        PageResponse<RecipeSummary> response = new PageResponse<>();
+        response.setContent(result.getContent());
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotalElements(result.getTotalElements());
+        response.setTotalPages(result.getTotalPages());
+        return response;
+    }
+
+    // Retrieves a user's recipes whose names match every word of the search within a few typos, closest first
+    public List<Recipe> searchFuzzy(String recipeName, Long userId, int limit) {
+        if (limit <= 0 || limit > MAX_FUZZY_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FUZZY_RESULTS);
+        }
+        List<Long> ids = recipeNameIndex.fuzzySearch(recipeName, userId, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Fetch only the matches and put them back in match order
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        return ids.stream().map(recipes::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     // Retrieves the first 20 recipes for a user, ordered by recipe ID in descending order
@@ -260,112 +327,83 @@ public class RecipeService {
         return recipeRepository.findTop20ByUserIdOrderByIdDesc(userId);
     }
 
+    // Retrieves the recipes a user logs most, weighted toward recent logs
+    public List<Recipe> getFrequentRecipesForUser(Long userId, int limit) {
+        return foodUsageService.getFrequentRecipes(userId, limit);
+    }
+
     // Deletes a recipe by its ID, including any associated food logs
     @Transactional
     public void deleteRecipe(Long recipeId) {
+        // Remember which days logged the recipe so their rollups can be rebuilt
+        List<LoggedDay> affectedDays = foodLogRepository.findLoggedDaysByRecipeId(recipeId);
+
         // Delete food logs containing recipe
         foodLogRepository.deleteByRecipeId(recipeId);
 
-        // Then delete recipe items and recipe
+        // Then delete recipe items, recipe, and its usage
         recipeRepository.deleteById(recipeId);
+        foodUsageService.deleteItem(FoodUsageService.RECIPE, recipeId);
+        recipeNameIndex.remove(recipeId);
+
+        // Rebuild the rollups of the days that lost entries
+        rollupService.rebuildDays(affectedDays);
     }
 
-    // Removes a recipe item from a recipe by its item ID and recalculates the recipe's nutritional values
+    // Removes a recipe item from a recipe by its item ID and takes its contribution out of the recipe's nutritional values
     @Transactional
     public Recipe removeRecipeItem(Long recipeId, Long recipeItemId) {
         // Find the recipe by ID, throw exception if not found
-        Recipe recipe = recipeRepository.findById(recipeId)
+        Recipe recipe = recipeRepository.findByIdForUpdate(recipeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with ID: " + recipeId));
 
-        // Find the recipe item by ID, throw exception if not found
-        RecipeItem recipeItem = recipeItemRepository.findById(recipeItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("RecipeItem not found with ID: " + recipeItemId));
+        // Find the recipe item within the recipe, throw exception if not found
+        RecipeItem recipeItem = findRecipeItem(recipe, recipeItemId);
 
         // Remove the RecipeItem from the recipe
         recipe.getRecipeItems().remove(recipeItem);
         recipeItemRepository.delete(recipeItem);
 
-        // Recalculate recipe nutritional values
-        recalculateRecipeNutritionalValues(recipe);
+        // Subtract the item's nutrients and weight. An empty recipe is reset to exact zeros, and an item whose
+        // food item no longer exists can only be accounted for by recomputing from the remaining items
+        Optional<FoodItem> foodItem = recipeItem.getFoodItemId() != null
+                ? foodItemRepository.findById(recipeItem.getFoodItemId())
+                : Optional.empty();
+        if (foodItem.isPresent() && !recipe.getRecipeItems().isEmpty()) {
+            recipeNutritionService.itemRemoved(recipe, foodItem.get(), recipeItem.getQuantity());
+        } else {
+            recalculateRecipeNutritionalValues(recipe);
+        }
 
         // Save the updated recipe
         return recipeRepository.save(recipe);
     }
 
+    // Helper method to find a recipe item belonging to the given recipe
+    private RecipeItem findRecipeItem(Recipe recipe, Long recipeItemId) {
+        RecipeItem recipeItem = recipeItemRepository.findById(recipeItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("RecipeItem not found with ID: " + recipeItemId));
+        if (!recipe.getId().equals(recipeItem.getRecipe().getId())) {
+            throw new ResourceNotFoundException("RecipeItem not found with ID: " + recipeItemId);
+        }
+        return recipeItem;
+    }
+
     // Helper method to recalculate the nutritional values of a recipe based on its recipe items
     private void recalculateRecipeNutritionalValues(Recipe recipe) {
-        // Initialize variables to store the total nutritional values
-        BigDecimal totalWeight = BigDecimal.ZERO;
-        BigDecimal totalCalories = BigDecimal.ZERO;
-        BigDecimal totalCarbs = BigDecimal.ZERO;
-        BigDecimal totalFat = BigDecimal.ZERO;
-        BigDecimal totalProtein = BigDecimal.ZERO;
-        BigDecimal totalAddedSugars = BigDecimal.ZERO;
-        BigDecimal totalTotalSugars = BigDecimal.ZERO;
-        BigDecimal totalTransFat = BigDecimal.ZERO;
-        BigDecimal totalSaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalPolyunsaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalMonounsaturatedFat = BigDecimal.ZERO;
-        BigDecimal totalCholesterol = BigDecimal.ZERO;
-        BigDecimal totalFiber = BigDecimal.ZERO;
-        BigDecimal totalCalcium = BigDecimal.ZERO;
-        BigDecimal totalIron = BigDecimal.ZERO;
-        BigDecimal totalSodium = BigDecimal.ZERO;
-        BigDecimal totalPotassium = BigDecimal.ZERO;
-        BigDecimal totalVitaminA = BigDecimal.ZERO;
-        BigDecimal totalVitaminC = BigDecimal.ZERO;
-        BigDecimal totalVitaminD = BigDecimal.ZERO;
-
-        // Loop through each recipe item in the recipe
-        for (RecipeItem item : recipe.getRecipeItems()) {
-            // Retrieve the food item based on the food item ID of the recipe item
-            FoodItem foodItem = foodItemRepository.findById(item.getFoodItemId())
-                    .orElseThrow(() -> new ResourceNotFoundException("FoodItem not found"));
-
-            // Update the nutritional values based on the quantity of the food item in the recipe
-            totalWeight = totalWeight.add(item.getQuantity());
-            totalCalories = totalCalories.add(foodItem.getCalories().multiply(item.getQuantity()));
-            totalCarbs = totalCarbs.add(foodItem.getCarbs().multiply(item.getQuantity()));
-            totalFat = totalFat.add(foodItem.getFat().multiply(item.getQuantity()));
-            totalProtein = totalProtein.add(foodItem.getProtein().multiply(item.getQuantity()));
-            totalAddedSugars = totalAddedSugars.add(foodItem.getAddedSugars().multiply(item.getQuantity()));
-            totalTotalSugars = totalTotalSugars.add(foodItem.getTotalSugars().multiply(item.getQuantity()));
-            totalTransFat = totalTransFat.add(foodItem.getTransFat().multiply(item.getQuantity()));
-            totalSaturatedFat = totalSaturatedFat.add(foodItem.getSaturatedFat().multiply(item.getQuantity()));
-            totalPolyunsaturatedFat = totalPolyunsaturatedFat.add(foodItem.getPolyunsaturatedFat().multiply(item.getQuantity()));
-            totalMonounsaturatedFat = totalMonounsaturatedFat.add(foodItem.getMonounsaturatedFat().multiply(item.getQuantity()));
-            totalCholesterol = totalCholesterol.add(foodItem.getCholesterol().multiply(item.getQuantity()));
-            totalFiber = totalFiber.add(foodItem.getFiber().multiply(item.getQuantity()));
-            totalCalcium = totalCalcium.add(foodItem.getCalcium().multiply(item.getQuantity()));
-            totalIron = totalIron.add(foodItem.getIron().multiply(item.getQuantity()));
-            totalSodium = totalSodium.add(foodItem.getSodium().multiply(item.getQuantity()));
-            totalPotassium = totalPotassium.add(foodItem.getPotassium().multiply(item.getQuantity()));
-            totalVitaminA = totalVitaminA.add(foodItem.getVitaminA().multiply(item.getQuantity()));
-            totalVitaminC = totalVitaminC.add(foodItem.getVitaminC().multiply(item.getQuantity()));
-            totalVitaminD = totalVitaminD.add(foodItem.getVitaminD().multiply(item.getQuantity()));
-        }
+        // Look up every ingredient's food item in one query
+        Map<Long, FoodItem> foodItems = findFoodItems(recipe.getRecipeItems().stream()
+                .map(RecipeItem::getFoodItemId)
+                .collect(Collectors.toList()));
+        recipeNutritionService.recalculate(recipe, recipe.getRecipeItems(), foodItems);
+    }
 
-        // Update the recipe's nutritional values based on the totals
-        recipe.setTotalWeight(totalWeight);
-        recipe.setCalories(totalCalories);
-        recipe.setCarbs(totalCarbs);
-        recipe.setFat(totalFat);
-        recipe.setProtein(totalProtein);
-        recipe.setAddedSugars(totalAddedSugars);
-        recipe.setTotalSugars(totalTotalSugars);
-        recipe.setTransFat(totalTransFat);
-        recipe.setSaturatedFat(totalSaturatedFat);
-        recipe.setPolyunsaturatedFat(totalPolyunsaturatedFat);
-        recipe.setMonounsaturatedFat(totalMonounsaturatedFat);
-        recipe.setCholesterol(totalCholesterol);
-        recipe.setFiber(totalFiber);
-        recipe.setCalcium(totalCalcium);
-        recipe.setIron(totalIron);
-        recipe.setSodium(totalSodium);
-        recipe.setPotassium(totalPotassium);
-        recipe.setVitaminA(totalVitaminA);
-        recipe.setVitaminC(totalVitaminC);
-        recipe.setVitaminD(totalVitaminD);
+    // Helper method to fetch the food items with the given IDs in a single query, keyed by ID.
+    // IDs with no food item are left out of the map, so callers decide how to report them
+    private Map<Long, FoodItem> findFoodItems(List<Long> foodItemIds) {
+        Set<Long> ids = foodItemIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        return foodItemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(FoodItem::getId, Function.identity()));
     }
 
     // Finds a recipe by its ID and throws an exception if not found
@@ -376,6 +414,8 @@ public class RecipeService {
     
     // Saves a recipe and returns the saved recipe object
     public Recipe save(Recipe recipe) {
-        return recipeRepository.save(recipe);
+        Recipe savedRecipe = recipeRepository.save(recipe);
+        recipeNameIndex.put(savedRecipe);
+        return savedRecipe;
     }
 }
@@ -6,6 +6,8 @@ import com.asmith.calmacro.repository.UserRepository;
 import com.asmith.calmacro.repository.FoodItemRepository;
 import com.asmith.calmacro.repository.RecipeRepository;
 import com.asmith.calmacro.repository.VerificationTokenRepository;
+import com.asmith.calmacro.search.FoodNameIndex;
+import com.asmith.calmacro.search.RecipeNameIndex;
 import com.asmith.calmacro.util.JwtUtil;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +42,21 @@ public class UserService {
     @Autowired
     private FoodItemRepository foodItemRepository;
 
+    @Autowired
+    private DailyNutrientRollupService rollupService;
+
+    @Autowired
+    private FoodUsageService foodUsageService;
+
+    @Autowired
+    private FoodNameIndex foodNameIndex;
+
+    @Autowired
+    private FoodItemService foodItemService;
+
+    @Autowired
+    private RecipeNameIndex recipeNameIndex;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -352,14 +369,19 @@ public class UserService {
     // Deletes the user's account and all associated data 
     @Transactional
     public void deleteUser(Long userId) {
-        // Delete food logs
+        // Delete food logs and their daily rollups
         userRepository.deleteFoodLogsByUserId(userId);
+        rollupService.deleteUserRollups(userId);
+        foodUsageService.deleteUserUsage(userId);
 
         // Delete recipes
         recipeRepository.deleteByUserId(userId);
+        recipeNameIndex.removeByUserId(userId);
 
         // Delete food items
         foodItemRepository.deleteByUserId(userId);
+        foodNameIndex.removeByUserId(userId);
+        foodItemService.clearBarcodeCache();
 
         // Finally, delete the user
         userRepository.deleteById(userId);
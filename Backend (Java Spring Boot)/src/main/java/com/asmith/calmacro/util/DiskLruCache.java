@@ -0,0 +1,243 @@
+package com.asmith.calmacro.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DiskLruCache
+ *
+ * Bounded cache of byte values kept as one file per entry in a directory, so cached entries
+ * survive restarts. Each file starts with the time it was written, and entries older than
+ * their time-to-live are treated as missing. Once the cache is full the least recently used
+ * entry is deleted; a hit touches its file, so the order of use is rebuilt from modification
+ * times when the cache is reopened. Files are read and written outside the cache's lock, and
+ * a value is written to a temporary file first and moved into place, so a reader never sees a
+ * half-written entry. Hit, miss, and eviction counts are kept for monitoring.
+ */
+
+public class DiskLruCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskLruCache.class);
+
+    private static final String SUFFIX = ".cache";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Write time of every cached file, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Opens the cache in a directory, creating it if needed and picking up the entries already in it
+    public DiskLruCache(Path directory, int maxEntries, Duration ttl) throws IOException {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        Files.createDirectories(directory);
+        loadEntries();
+    }
+
+    // Returns the cached value for a key, or null when it is missing, expired, or unreadable
+    public byte[] get(String key) {
+        String file = fileName(key);
+        Path path = directory.resolve(file);
+        synchronized (this) {
+            Long createdAt = entries.get(file);
+            if (createdAt == null) {
+                misses++;
+                return null;
+            }
+            if (isExpired(createdAt)) {
+                entries.remove(file);
+                evictions++;
+                misses++;
+                delete(path);
+                return null;
+            }
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < Long.BYTES) {
+                throw new IOException("Cache entry is truncated");
+            }
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                hits++;
+            }
+            return Arrays.copyOfRange(bytes, Long.BYTES, bytes.length);
+        } catch (IOException e) {
+            // The entry was evicted by another thread or its file was damaged
+            synchronized (this) {
+                entries.remove(file);
+                misses++;
+            }
+            return null;
+        }
+    }
+
+    // Stores a value, replacing any existing entry for the key
+    public void put(String key, byte[] value) {
+        String file = fileName(key);
+        long createdAt = System.currentTimeMillis();
+        Path path = directory.resolve(file);
+        try {
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + value.length);
+                buffer.putLong(createdAt).put(value);
+                Files.write(temp, buffer.array());
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write cache entry {}", path, e);
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            entries.put(file, createdAt);
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries) {
+                evicted.add(eldest.next());
+                eldest.remove();
+                evictions++;
+            }
+        }
+        for (String name : evicted) {
+            delete(directory.resolve(name));
+        }
+    }
+
+    // Removes every entry
+    public void invalidateAll() {
+        List<String> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(entries.keySet());
+            entries.clear();
+        }
+        for (String name : removed) {
+            delete(directory.resolve(name));
+        }
+    }
+
+    // Returns the hit, miss, and eviction counts along with the current size and hit rate
+    public synchronized Map<String, Number> stats() {
+        long requests = hits + misses;
+
+        Map<String, Number> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxEntries);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        return stats;
+    }
+
+    // Rebuilds the index from the files in the directory, least recently used first, dropping expired ones
+    private void loadEntries() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    files.add(path);
+                } else if (name.endsWith(".tmp")) {
+                    // Left behind by a write that never finished
+                    delete(path);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(DiskLruCache::lastModified));
+
+        for (Path path : files) {
+            Long createdAt = readCreatedAt(path);
+            if (createdAt == null || isExpired(createdAt)) {
+                delete(path);
+            } else {
+                entries.put(path.getFileName().toString(), createdAt);
+            }
+        }
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries) {
+            delete(directory.resolve(eldest.next()));
+            eldest.remove();
+        }
+        logger.info("Opened cache in {} with {} entries", directory, entries.size());
+    }
+
+    private boolean isExpired(long createdAt) {
+        return System.currentTimeMillis() - createdAt > ttlMillis;
+    }
+
+    // Reads the write time at the start of a cache file, or null when the file is too short to hold one
+    private static Long readCreatedAt(Path path) {
+        try (InputStream in = Files.newInputStream(path); DataInputStream data = new DataInputStream(in)) {
+            return data.readLong();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (NoSuchFileException e) {
+            // Already gone
+        } catch (IOException e) {
+            logger.warn("Could not delete cache entry {}", path, e);
+        }
+    }
+
+    // Names the file of a key after its SHA-256 hash, so any key makes a safe file name
+    private static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.asmith.calmacro.util;
+
+import com.asmith.calmacro.model.FoodItem;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * FdcFoods
+ *
+ * Maps USDA FoodData Central food records onto the food item fields. Both the bulk dumps and
+ * the search API are read through here, so imported and searched foods get the same names and
+ * the same nutrients. FDC reports nutrients per 100 g, and food items store them per gram.
+ */
+
+public final class FdcFoods {
+
+    // FDC nutrient numbers by the food_item column they fill
+    public static final Map<String, String> NUTRIENT_COLUMNS;
+    static {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("calories", "208");
+        columns.put("protein", "203");
+        columns.put("carbs", "205");
+        columns.put("fat", "204");
+        columns.put("total_sugars", "269");
+        columns.put("added_sugars", "539");
+        columns.put("trans_fat", "605");
+        columns.put("saturated_fat", "606");
+        columns.put("polyunsaturated_fat", "646");
+        columns.put("monounsaturated_fat", "645");
+        columns.put("cholesterol", "601");
+        columns.put("fiber", "291");
+        columns.put("calcium", "301");
+        columns.put("iron", "303");
+        columns.put("sodium", "307");
+        columns.put("potassium", "306");
+        columns.put("vitamin_a", "320");
+        columns.put("vitamin_c", "401");
+        columns.put("vitamin_d", "328");
+        NUTRIENT_COLUMNS = Collections.unmodifiableMap(columns);
+    }
+
+    // Energy numbers tried when a food has no 208 energy value, as foundation foods often report Atwater energy only
+    private static final String[] FALLBACK_ENERGY_NUMBERS = {"958", "957"};
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private FdcFoods() {
+    }
+
+    // Returns the display name of a food, with its brand when it has one, or null when it has no description
+    public static String name(JsonNode food) {
+        String description = food.path("description").asText("").trim();
+        if (description.isEmpty()) {
+            return null;
+        }
+        String brandName = food.path("brandName").asText("").trim();
+        return truncate(brandName.isEmpty() ? description : description + " (" + brandName + ")");
+    }
+
+    // Collects the nutrient amounts of a food by FDC nutrient number. Dumps nest the number under
+    // "nutrient" with an "amount", while search results carry a flat "nutrientNumber" and "value"
+    public static Map<String, Double> amounts(JsonNode food) {
+        Map<String, Double> amounts = new HashMap<>();
+        for (JsonNode foodNutrient : food.path("foodNutrients")) {
+            String number = foodNutrient.path("nutrient").path("number").asText("");
+            JsonNode amount = foodNutrient.path("amount");
+            if (number.isEmpty()) {
+                number = foodNutrient.path("nutrientNumber").asText("");
+                amount = foodNutrient.path("value");
+            }
+            if (!number.isEmpty() && amount.isNumber()) {
+                amounts.putIfAbsent(number, amount.asDouble());
+            }
+        }
+        if (!amounts.containsKey("208")) {
+            for (String number : FALLBACK_ENERGY_NUMBERS) {
+                if (amounts.containsKey(number)) {
+                    amounts.put("208", amounts.get(number));
+                    break;
+                }
+            }
+        }
+        return amounts;
+    }
+
+    // Converts the amount of a food_item column from per 100 g to per gram, the way the app has always converted FDC values
+    public static BigDecimal perGram(Map<String, Double> amounts, String column) {
+        Double amount = amounts.get(NUTRIENT_COLUMNS.get(column));
+        return BigDecimal.valueOf(amount == null ? 0.0 : amount / 100);
+    }
+
+    // Reads a text field, or null when it is missing or blank
+    public static String text(JsonNode node, String field) {
+        String text = node.path(field).asText("").trim();
+        return text.isEmpty() ? null : truncate(text);
+    }
+
+    // Builds an unsaved food item from an FDC food, or returns null when it has no ID or description
+    public static FoodItem toFoodItem(JsonNode food) {
+        long fdcId = food.path("fdcId").asLong(0);
+        String name = name(food);
+        if (fdcId == 0 || name == null) {
+            return null;
+        }
+
+        FoodItem item = new FoodItem();
+        item.setFdcId(fdcId);
+        item.setName(name);
+        item.setServingSize(food.hasNonNull("servingSize") ? BigDecimal.valueOf(food.get("servingSize").asDouble()) : null);
+        item.setServingSizeUnit(text(food, "servingSizeUnit"));
+        item.setServingText(text(food, "householdServingFullText"));
+        item.setBarcode(Gtin.normalize(text(food, "gtinUpc")));
+
+        Map<String, Double> amounts = amounts(food);
+        item.setCalories(perGram(amounts, "calories"));
+        item.setProtein(perGram(amounts, "protein"));
+        item.setCarbs(perGram(amounts, "carbs"));
+        item.setFat(perGram(amounts, "fat"));
+        item.setTotalSugars(perGram(amounts, "total_sugars"));
+        item.setAddedSugars(perGram(amounts, "added_sugars"));
+        item.setTransFat(perGram(amounts, "trans_fat"));
+        item.setSaturatedFat(perGram(amounts, "saturated_fat"));
+        item.setPolyunsaturatedFat(perGram(amounts, "polyunsaturated_fat"));
+        item.setMonounsaturatedFat(perGram(amounts, "monounsaturated_fat"));
+        item.setCholesterol(perGram(amounts, "cholesterol"));
+        item.setFiber(perGram(amounts, "fiber"));
+        item.setCalcium(perGram(amounts, "calcium"));
+        item.setIron(perGram(amounts, "iron"));
+        item.setSodium(perGram(amounts, "sodium"));
+        item.setPotassium(perGram(amounts, "potassium"));
+        item.setVitaminA(perGram(amounts, "vitamin_a"));
+        item.setVitaminC(perGram(amounts, "vitamin_c"));
+        item.setVitaminD(perGram(amounts, "vitamin_d"));
+        return item;
+    }
+
+    private static String truncate(String text) {
+        return text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+}
@@ -0,0 +1,41 @@
+package com.asmith.calmacro.util;
+
+/**
+ * Gtin
+ *
+ * Normalizes scanned product barcodes. UPC-A, EAN-8, EAN-13, and GTIN-14 codes are all GTINs
+ * of different lengths, and left-padding them with zeros to 14 digits gives every product a
+ * single form to store and look up, whichever of them was scanned.
+ */
+
+public final class Gtin {
+
+    private Gtin() {
+    }
+
+    // Returns the 14-digit form of a GTIN, or null if the code is not an 8, 12, 13, or 14 digit GTIN
+    // with a valid check digit
+    public static String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String digits = code.trim();
+        int length = digits.length();
+        if ((length != 8 && length != 12 && length != 13 && length != 14) || !digits.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        String gtin = "0".repeat(14 - length) + digits;
+        return hasValidCheckDigit(gtin) ? gtin : null;
+    }
+
+    // Checks the final digit against the GS1 weighted sum of the others
+    private static boolean hasValidCheckDigit(String gtin) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            int digit = gtin.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit * 3 : digit;
+        }
+        int check = (10 - sum % 10) % 10;
+        return check == gtin.charAt(13) - '0';
+    }
+}
@@ -0,0 +1,101 @@
+package com.asmith.calmacro.util;
+
+import com.asmith.calmacro.model.NutrientProfile;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NutrientTotals
+ *
+ * Exact accumulator for nutrient totals that are written back to the database, such as daily
+ * rollups and recipe totals. It uses the same fixed indexes as NutrientVector, but keeps every
+ * slot as a BigDecimal so sums and products are exact, and rounds only once, to the scale of the
+ * nutrient columns, when a total is read out to be stored. NutrientVector stays the faster choice
+ * for totals that are only reported and never stored.
+ */
+
+public class NutrientTotals {
+
+    // Decimal places of the nutrient columns the totals are stored in
+    public static final int SCALE = 2;
+
+    private final BigDecimal[] values = new BigDecimal[NutrientVector.SIZE];
+
+    public NutrientTotals() {
+        clear();
+    }
+
+    // Adds every nutrient of the profile multiplied by the given factor
+    public NutrientTotals addScaled(NutrientProfile profile, BigDecimal factor) {
+        add(NutrientVector.CALORIES, profile.getCalories(), factor);
+        add(NutrientVector.PROTEIN, profile.getProtein(), factor);
+        add(NutrientVector.CARBS, profile.getCarbs(), factor);
+        add(NutrientVector.FAT, profile.getFat(), factor);
+        add(NutrientVector.TOTAL_SUGARS, profile.getTotalSugars(), factor);
+        add(NutrientVector.ADDED_SUGARS, profile.getAddedSugars(), factor);
+        add(NutrientVector.TRANS_FAT, profile.getTransFat(), factor);
+        add(NutrientVector.SATURATED_FAT, profile.getSaturatedFat(), factor);
+        add(NutrientVector.POLYUNSATURATED_FAT, profile.getPolyunsaturatedFat(), factor);
+        add(NutrientVector.MONOUNSATURATED_FAT, profile.getMonounsaturatedFat(), factor);
+        add(NutrientVector.CHOLESTEROL, profile.getCholesterol(), factor);
+        add(NutrientVector.FIBER, profile.getFiber(), factor);
+        add(NutrientVector.CALCIUM, profile.getCalcium(), factor);
+        add(NutrientVector.IRON, profile.getIron(), factor);
+        add(NutrientVector.SODIUM, profile.getSodium(), factor);
+        add(NutrientVector.POTASSIUM, profile.getPotassium(), factor);
+        add(NutrientVector.VITAMIN_A, profile.getVitaminA(), factor);
+        add(NutrientVector.VITAMIN_C, profile.getVitaminC(), factor);
+        add(NutrientVector.VITAMIN_D, profile.getVitaminD(), factor);
+        return this;
+    }
+
+    // Adds a water amount
+    public NutrientTotals addWater(BigDecimal water) {
+        add(NutrientVector.WATER, water, BigDecimal.ONE);
+        return this;
+    }
+
+    // Adds every slot of another set of totals multiplied by the given factor
+    public NutrientTotals add(NutrientTotals other, BigDecimal factor) {
+        for (int i = 0; i < NutrientVector.SIZE; i++) {
+            values[i] = values[i].add(other.values[i].multiply(factor));
+        }
+        return this;
+    }
+
+    // Resets every slot to zero so the totals can be reused
+    public void clear() {
+        for (int i = 0; i < NutrientVector.SIZE; i++) {
+            values[i] = BigDecimal.ZERO;
+        }
+    }
+
+    // Returns the exact value at the given index
+    public BigDecimal get(int index) {
+        return values[index];
+    }
+
+    // Returns the value at the given index rounded to the column scale
+    public BigDecimal decimal(int index) {
+        return values[index].setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    // Converts the totals into the totals map returned by the API
+    public Map<String, BigDecimal> toMap() {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (int i = 0; i < NutrientVector.SIZE; i++) {
+            totals.put(NutrientVector.NAMES.get(i), decimal(i));
+        }
+        return totals;
+    }
+
+    // Adds a value times a factor to one slot, treating missing values as zero
+    private void add(int index, BigDecimal value, BigDecimal factor) {
+        if (value != null) {
+            values[index] = values[index].add(value.multiply(factor));
+        }
+    }
+}
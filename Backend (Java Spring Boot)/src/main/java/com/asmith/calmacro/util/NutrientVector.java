@@ -0,0 +1,124 @@
+package com.asmith.calmacro.util;
+
+import com.asmith.calmacro.model.NutrientProfile;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NutrientVector
+ *
+ * Fixed-size accumulator for nutrient totals backed by a primitive array. Every nutrient
+ * has a fixed index, so adding a scaled food item or recipe is one multiply-add per slot
+ * with no map lookups or intermediate BigDecimal allocations. Doubles cannot hold most decimal
+ * amounts exactly, so the vector is only for totals that are reported and discarded, such as
+ * trends; totals that are stored go through NutrientTotals instead.
+ */
+
+public class NutrientVector {
+
+    // Fixed index of each nutrient in the vector
+    public static final int CALORIES = 0;
+    public static final int PROTEIN = 1;
+    public static final int CARBS = 2;
+    public static final int FAT = 3;
+    public static final int TOTAL_SUGARS = 4;
+    public static final int ADDED_SUGARS = 5;
+    public static final int TRANS_FAT = 6;
+    public static final int SATURATED_FAT = 7;
+    public static final int POLYUNSATURATED_FAT = 8;
+    public static final int MONOUNSATURATED_FAT = 9;
+    public static final int CHOLESTEROL = 10;
+    public static final int FIBER = 11;
+    public static final int CALCIUM = 12;
+    public static final int IRON = 13;
+    public static final int SODIUM = 14;
+    public static final int POTASSIUM = 15;
+    public static final int VITAMIN_A = 16;
+    public static final int VITAMIN_C = 17;
+    public static final int VITAMIN_D = 18;
+    public static final int WATER = 19;
+    public static final int SIZE = 20;
+
+    // Totals map key for each index, in index order
+    public static final List<String> NAMES = List.of("calories", "protein", "carbs", "fat", "totalSugars", "addedSugars",
+            "transFat", "saturatedFat", "polyunsaturatedFat", "monounsaturatedFat", "cholesterol",
+            "fiber", "calcium", "iron", "sodium", "potassium", "vitaminA", "vitaminC", "vitaminD", "water");
+
+    // Decimal places kept when converting totals back to BigDecimal
+    private static final int SCALE = 4;
+
+    private final double[] values = new double[SIZE];
+
+    // Adds every nutrient of the profile multiplied by the given factor
+    public NutrientVector addScaled(NutrientProfile profile, double factor) {
+        values[CALORIES] += valueOf(profile.getCalories()) * factor;
+        values[PROTEIN] += valueOf(profile.getProtein()) * factor;
+        values[CARBS] += valueOf(profile.getCarbs()) * factor;
+        values[FAT] += valueOf(profile.getFat()) * factor;
+        values[TOTAL_SUGARS] += valueOf(profile.getTotalSugars()) * factor;
+        values[ADDED_SUGARS] += valueOf(profile.getAddedSugars()) * factor;
+        values[TRANS_FAT] += valueOf(profile.getTransFat()) * factor;
+        values[SATURATED_FAT] += valueOf(profile.getSaturatedFat()) * factor;
+        values[POLYUNSATURATED_FAT] += valueOf(profile.getPolyunsaturatedFat()) * factor;
+        values[MONOUNSATURATED_FAT] += valueOf(profile.getMonounsaturatedFat()) * factor;
+        values[CHOLESTEROL] += valueOf(profile.getCholesterol()) * factor;
+        values[FIBER] += valueOf(profile.getFiber()) * factor;
+        values[CALCIUM] += valueOf(profile.getCalcium()) * factor;
+        values[IRON] += valueOf(profile.getIron()) * factor;
+        values[SODIUM] += valueOf(profile.getSodium()) * factor;
+        values[POTASSIUM] += valueOf(profile.getPotassium()) * factor;
+        values[VITAMIN_A] += valueOf(profile.getVitaminA()) * factor;
+        values[VITAMIN_C] += valueOf(profile.getVitaminC()) * factor;
+        values[VITAMIN_D] += valueOf(profile.getVitaminD()) * factor;
+        return this;
+    }
+
+    // Adds a water amount
+    public NutrientVector addWater(BigDecimal water) {
+        values[WATER] += valueOf(water);
+        return this;
+    }
+
+    // Adds every slot of another vector multiplied by the given factor
+    public NutrientVector add(NutrientVector other, double factor) {
+        for (int i = 0; i < SIZE; i++) {
+            values[i] += other.values[i] * factor;
+        }
+        return this;
+    }
+
+    // Resets every slot to zero so the vector can be reused
+    public void clear() {
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = 0.0;
+        }
+    }
+
+    // Returns the raw value at the given index
+    public double get(int index) {
+        return values[index];
+    }
+
+    // Returns the value at the given index as a BigDecimal
+    public BigDecimal decimal(int index) {
+        return BigDecimal.valueOf(values[index]).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    // Converts the vector into the totals map returned by the API
+    public Map<String, BigDecimal> toMap() {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (int i = 0; i < SIZE; i++) {
+            totals.put(NAMES.get(i), decimal(i));
+        }
+        return totals;
+    }
+
+    // Treats missing nutrient values as zero
+    private static double valueOf(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0.0;
+    }
+}
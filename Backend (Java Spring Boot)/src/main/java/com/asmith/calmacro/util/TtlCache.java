@@ -0,0 +1,172 @@
+package com.asmith.calmacro.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * TtlCache
+ *
+ * Bounded in-memory cache that evicts the least recently used entry once it is full and treats
+ * entries older than their time-to-live as missing. Values are loaded outside the cache's lock,
+ * so a slow load for one key never blocks reads of other keys. Each key with a load in progress
+ * has a generation that invalidating the key increments, and a load only stores its value if the
+ * generation is unchanged when it finishes, so a value read before an invalidation is never cached
+ * after it. Hit, miss, and eviction counts are kept for monitoring.
+ */
+
+public class TtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Loads in progress by key, holding only keys that are being loaded
+    private final Map<K, Load> loads = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Creates a cache holding at most maxSize entries, each for at most the given time-to-live
+    public TtlCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+
+        // Access order keeps the least recently used entry first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached value for a key, or null when it is missing or expired
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    // Returns the cached value for a key, loading and caching it when it is missing or expired.
+    // The loaded value is returned either way, but only cached if the key was not invalidated meanwhile
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        Load load;
+        long generation;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            load = loads.computeIfAbsent(key, k -> new Load());
+            load.loaders++;
+            generation = load.generation;
+        }
+
+        V value = null;
+        try {
+            value = loader.apply(key);
+            return value;
+        } finally {
+            finishLoad(key, load, generation, value);
+        }
+    }
+
+    // Stores a value, replacing any existing entry for the key
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    // Removes the entry for a key and discards any load of it already in progress
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        Load load = loads.get(key);
+        if (load != null) {
+            load.generation++;
+        }
+    }
+
+    // Removes every entry whose key matches the predicate and discards their loads in progress
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+        loads.forEach((key, load) -> {
+            if (predicate.test(key)) {
+                load.generation++;
+            }
+        });
+    }
+
+    // Removes every entry and discards every load in progress
+    public synchronized void invalidateAll() {
+        entries.clear();
+        loads.values().forEach(load -> load.generation++);
+    }
+
+    // Returns the number of entries currently held, including expired ones not yet removed
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Returns the hit, miss, and eviction counts along with the current size and hit rate
+    public synchronized Map<String, Number> stats() {
+        long requests = hits + misses;
+
+        Map<String, Number> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        return stats;
+    }
+
+    // Stores a loaded value unless its key was invalidated since the load started, and forgets the load once
+    // no other thread is loading the same key
+    private synchronized void finishLoad(K key, Load load, long generation, V value) {
+        if (value != null && load.generation == generation) {
+            put(key, value);
+        }
+        if (--load.loaders == 0) {
+            loads.remove(key);
+        }
+    }
+
+    // Cached value together with the time it was stored
+    private static class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // Generation of a key being loaded and the number of threads loading it
+    private static class Load {
+        private long generation;
+        private int loaders;
+    }
+}
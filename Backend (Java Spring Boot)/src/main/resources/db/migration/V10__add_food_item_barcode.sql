@@ -0,0 +1,4 @@
+-- GTIN of packaged foods, stored as the 14-digit form so UPC-A, EAN-13 and GTIN-14 scans of the
+-- same product find the same row. The unique index makes a scan a single index lookup.
+ALTER TABLE food_item ADD COLUMN barcode VARCHAR(14);
+CREATE UNIQUE INDEX uk_food_item_barcode ON food_item (barcode);
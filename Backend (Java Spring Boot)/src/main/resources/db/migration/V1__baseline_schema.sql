@@ -0,0 +1,153 @@
+-- Baseline schema, matching the tables Hibernate generated from the entity classes before the schema
+-- was managed by migrations. Databases that already hold these tables are baselined at this version
+-- instead of running it, so this file must not change; later schema changes go in their own migration.
+
+CREATE TABLE `user` (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    password_hash VARCHAR(255) NOT NULL,
+    verified BIT NOT NULL,
+    initial_login BIT NOT NULL,
+    reset_code VARCHAR(255),
+    code_expiry DATETIME(6),
+    account_created DATE,
+    login_streak INT,
+    last_checked_date DATE,
+    last_totals VARCHAR(255),
+    met_calorie_goal DATE,
+    met_cal_mac_goal DATE,
+    met_water_goal DATE,
+    met_fiber_goal DATE,
+    met_all_goals DATE,
+    met_calorie_num INT,
+    met_cal_mac_num INT,
+    met_water_num INT,
+    met_fiber_num INT,
+    met_all_num INT,
+    daily_calorie_goal INT,
+    daily_protein_goal INT,
+    daily_carbs_goal INT,
+    daily_fat_goal INT,
+    total_sugars INT,
+    added_sugars INT,
+    fiber INT,
+    calcium INT,
+    iron INT,
+    sodium INT,
+    vitamin_a INT,
+    vitamin_c INT,
+    vitamin_d INT,
+    cholesterol INT,
+    trans_fat INT,
+    saturated_fat INT,
+    polyunsaturated_fat INT,
+    monounsaturated_fat INT,
+    potassium INT,
+    water INT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE verification_token (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token VARCHAR(255),
+    expiry_date DATETIME(6),
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_verification_token_user UNIQUE (user_id),
+    CONSTRAINT fk_verification_token_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE food_item (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    user_id BIGINT,
+    calories DECIMAL(38,2),
+    protein DECIMAL(38,2),
+    carbs DECIMAL(38,2),
+    fat DECIMAL(38,2),
+    original_serving_size DECIMAL(38,2),
+    serving_size DECIMAL(38,2),
+    serving_size_unit VARCHAR(255),
+    serving_text VARCHAR(255),
+    total_sugars DECIMAL(38,2),
+    added_sugars DECIMAL(38,2),
+    trans_fat DECIMAL(38,2),
+    saturated_fat DECIMAL(38,2),
+    polyunsaturated_fat DECIMAL(38,2),
+    monounsaturated_fat DECIMAL(38,2),
+    cholesterol DECIMAL(38,2),
+    fiber DECIMAL(38,2),
+    calcium DECIMAL(38,2),
+    iron DECIMAL(38,2),
+    sodium DECIMAL(38,2),
+    potassium DECIMAL(38,2),
+    vitamin_a DECIMAL(38,2),
+    vitamin_c DECIMAL(38,2),
+    vitamin_d DECIMAL(38,2),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE recipe (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    recipe_name VARCHAR(255),
+    direction VARCHAR(255),
+    state VARCHAR(255),
+    calories DECIMAL(38,2),
+    protein DECIMAL(38,2),
+    carbs DECIMAL(38,2),
+    fat DECIMAL(38,2),
+    total_weight DECIMAL(38,2),
+    serving_size DECIMAL(38,2),
+    serving_size_unit VARCHAR(255),
+    serving_text VARCHAR(255),
+    total_sugars DECIMAL(38,2),
+    added_sugars DECIMAL(38,2),
+    trans_fat DECIMAL(38,2),
+    saturated_fat DECIMAL(38,2),
+    polyunsaturated_fat DECIMAL(38,2),
+    monounsaturated_fat DECIMAL(38,2),
+    cholesterol DECIMAL(38,2),
+    fiber DECIMAL(38,2),
+    calcium DECIMAL(38,2),
+    iron DECIMAL(38,2),
+    sodium DECIMAL(38,2),
+    potassium DECIMAL(38,2),
+    vitamin_a DECIMAL(38,2),
+    vitamin_c DECIMAL(38,2),
+    vitamin_d DECIMAL(38,2),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE recipe_item (
+    recipe_item_id BIGINT NOT NULL AUTO_INCREMENT,
+    recipe_id BIGINT NOT NULL,
+    food_item_id BIGINT,
+    food_name VARCHAR(255),
+    quantity DECIMAL(38,2),
+    unit VARCHAR(255),
+    unit_quantity DECIMAL(38,2),
+    PRIMARY KEY (recipe_item_id),
+    CONSTRAINT fk_recipe_item_recipe FOREIGN KEY (recipe_id) REFERENCES recipe (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE food_log (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    food_item_id BIGINT,
+    recipe_id BIGINT,
+    quantity DECIMAL(38,2),
+    log_date DATE,
+    selected_meal VARCHAR(255),
+    selected_unit VARCHAR(255),
+    unit_quantity DECIMAL(38,2),
+    log_time TIME(6),
+    water DECIMAL(38,2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_food_log_user FOREIGN KEY (user_id) REFERENCES `user` (id),
+    CONSTRAINT fk_food_log_food_item FOREIGN KEY (food_item_id) REFERENCES food_item (id),
+    CONSTRAINT fk_food_log_recipe FOREIGN KEY (recipe_id) REFERENCES recipe (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,68 @@
+-- Per-unit nutrient values of the logged food or recipe, copied onto each food log entry when it
+-- is written, so later edits to the food or recipe do not change the entry.
+ALTER TABLE food_log
+    ADD COLUMN calories DECIMAL(38,2),
+    ADD COLUMN protein DECIMAL(38,2),
+    ADD COLUMN carbs DECIMAL(38,2),
+    ADD COLUMN fat DECIMAL(38,2),
+    ADD COLUMN total_sugars DECIMAL(38,2),
+    ADD COLUMN added_sugars DECIMAL(38,2),
+    ADD COLUMN trans_fat DECIMAL(38,2),
+    ADD COLUMN saturated_fat DECIMAL(38,2),
+    ADD COLUMN polyunsaturated_fat DECIMAL(38,2),
+    ADD COLUMN monounsaturated_fat DECIMAL(38,2),
+    ADD COLUMN cholesterol DECIMAL(38,2),
+    ADD COLUMN fiber DECIMAL(38,2),
+    ADD COLUMN calcium DECIMAL(38,2),
+    ADD COLUMN iron DECIMAL(38,2),
+    ADD COLUMN sodium DECIMAL(38,2),
+    ADD COLUMN potassium DECIMAL(38,2),
+    ADD COLUMN vitamin_a DECIMAL(38,2),
+    ADD COLUMN vitamin_c DECIMAL(38,2),
+    ADD COLUMN vitamin_d DECIMAL(38,2);
+
+-- Logs written before snapshots existed take the current values of their food item or recipe, the
+-- closest record of what was logged.
+UPDATE food_log f JOIN food_item fi ON fi.id = f.food_item_id SET
+    f.calories = fi.calories,
+    f.protein = fi.protein,
+    f.carbs = fi.carbs,
+    f.fat = fi.fat,
+    f.total_sugars = fi.total_sugars,
+    f.added_sugars = fi.added_sugars,
+    f.trans_fat = fi.trans_fat,
+    f.saturated_fat = fi.saturated_fat,
+    f.polyunsaturated_fat = fi.polyunsaturated_fat,
+    f.monounsaturated_fat = fi.monounsaturated_fat,
+    f.cholesterol = fi.cholesterol,
+    f.fiber = fi.fiber,
+    f.calcium = fi.calcium,
+    f.iron = fi.iron,
+    f.sodium = fi.sodium,
+    f.potassium = fi.potassium,
+    f.vitamin_a = fi.vitamin_a,
+    f.vitamin_c = fi.vitamin_c,
+    f.vitamin_d = fi.vitamin_d
+WHERE f.calories IS NULL;
+
+UPDATE food_log f JOIN recipe r ON r.id = f.recipe_id SET
+    f.calories = r.calories,
+    f.protein = r.protein,
+    f.carbs = r.carbs,
+    f.fat = r.fat,
+    f.total_sugars = r.total_sugars,
+    f.added_sugars = r.added_sugars,
+    f.trans_fat = r.trans_fat,
+    f.saturated_fat = r.saturated_fat,
+    f.polyunsaturated_fat = r.polyunsaturated_fat,
+    f.monounsaturated_fat = r.monounsaturated_fat,
+    f.cholesterol = r.cholesterol,
+    f.fiber = r.fiber,
+    f.calcium = r.calcium,
+    f.iron = r.iron,
+    f.sodium = r.sodium,
+    f.potassium = r.potassium,
+    f.vitamin_a = r.vitamin_a,
+    f.vitamin_c = r.vitamin_c,
+    f.vitamin_d = r.vitamin_d
+WHERE f.calories IS NULL;
@@ -0,0 +1,59 @@
+-- Running nutrient totals for each meal of each user's day, kept up to date with deltas as food
+-- logs are written so day and meal totals are read without re-aggregating food_log.
+CREATE TABLE daily_nutrient_rollup (
+    user_id BIGINT NOT NULL,
+    log_date DATE NOT NULL,
+    selected_meal VARCHAR(255) NOT NULL,
+    calories DECIMAL(38,2),
+    protein DECIMAL(38,2),
+    carbs DECIMAL(38,2),
+    fat DECIMAL(38,2),
+    total_sugars DECIMAL(38,2),
+    added_sugars DECIMAL(38,2),
+    trans_fat DECIMAL(38,2),
+    saturated_fat DECIMAL(38,2),
+    polyunsaturated_fat DECIMAL(38,2),
+    monounsaturated_fat DECIMAL(38,2),
+    cholesterol DECIMAL(38,2),
+    fiber DECIMAL(38,2),
+    calcium DECIMAL(38,2),
+    iron DECIMAL(38,2),
+    sodium DECIMAL(38,2),
+    potassium DECIMAL(38,2),
+    vitamin_a DECIMAL(38,2),
+    vitamin_c DECIMAL(38,2),
+    vitamin_d DECIMAL(38,2),
+    water DECIMAL(38,2),
+    PRIMARY KEY (user_id, log_date, selected_meal)
+) ENGINE = InnoDB;
+
+-- Days logged before rollups existed, summed from the nutrient snapshots filled in by V2. Entries saved
+-- without a meal are counted under Snack, the default meal, as every rollup row names one.
+INSERT INTO daily_nutrient_rollup (user_id, log_date, selected_meal,
+    calories, protein, carbs, fat, total_sugars, added_sugars, trans_fat, saturated_fat,
+    polyunsaturated_fat, monounsaturated_fat, cholesterol, fiber, calcium, iron, sodium, potassium,
+    vitamin_a, vitamin_c, vitamin_d, water)
+SELECT f.user_id, f.log_date, COALESCE(f.selected_meal, 'Snack'),
+    COALESCE(SUM(f.calories * f.quantity), 0),
+    COALESCE(SUM(f.protein * f.quantity), 0),
+    COALESCE(SUM(f.carbs * f.quantity), 0),
+    COALESCE(SUM(f.fat * f.quantity), 0),
+    COALESCE(SUM(f.total_sugars * f.quantity), 0),
+    COALESCE(SUM(f.added_sugars * f.quantity), 0),
+    COALESCE(SUM(f.trans_fat * f.quantity), 0),
+    COALESCE(SUM(f.saturated_fat * f.quantity), 0),
+    COALESCE(SUM(f.polyunsaturated_fat * f.quantity), 0),
+    COALESCE(SUM(f.monounsaturated_fat * f.quantity), 0),
+    COALESCE(SUM(f.cholesterol * f.quantity), 0),
+    COALESCE(SUM(f.fiber * f.quantity), 0),
+    COALESCE(SUM(f.calcium * f.quantity), 0),
+    COALESCE(SUM(f.iron * f.quantity), 0),
+    COALESCE(SUM(f.sodium * f.quantity), 0),
+    COALESCE(SUM(f.potassium * f.quantity), 0),
+    COALESCE(SUM(f.vitamin_a * f.quantity), 0),
+    COALESCE(SUM(f.vitamin_c * f.quantity), 0),
+    COALESCE(SUM(f.vitamin_d * f.quantity), 0),
+    COALESCE(SUM(f.water), 0)
+FROM food_log f
+WHERE f.user_id IS NOT NULL AND f.log_date IS NOT NULL
+GROUP BY f.user_id, f.log_date, COALESCE(f.selected_meal, 'Snack');
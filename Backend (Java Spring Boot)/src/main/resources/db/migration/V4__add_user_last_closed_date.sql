@@ -0,0 +1,2 @@
+-- Last day the nightly close-out job settled for each user, so a rerun skips days already closed.
+ALTER TABLE `user` ADD COLUMN last_closed_date DATE;
@@ -0,0 +1,8 @@
+-- Version counter for each user's day, bumped by every write to the day's food logs and used as
+-- the ETag of day reads.
+CREATE TABLE daily_log_version (
+    user_id BIGINT NOT NULL,
+    log_date DATE NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id, log_date)
+) ENGINE = InnoDB;
@@ -0,0 +1,17 @@
+-- Indexes backing the repository finders.
+-- food_log.food_item_id and food_log.recipe_id (findByFoodItemId, findByRecipeId and the deletes by either)
+-- are already indexed, since InnoDB keeps an index on every foreign key column.
+
+-- Day reads, meal reads and date-range reads of a user's food log. This also covers the user_id foreign key,
+-- so MySQL can drop the single-column index it created implicitly for that constraint
+CREATE INDEX idx_food_log_user_date_meal ON food_log (user_id, log_date, selected_meal);
+
+-- Password reset lookup by code
+CREATE INDEX idx_user_reset_code ON `user` (reset_code);
+
+-- Email verification lookup by token
+CREATE INDEX idx_verification_token_token ON verification_token (token);
+
+-- A user's food items and recipes, including the 20 most recent of each
+CREATE INDEX idx_food_item_user ON food_item (user_id, id);
+CREATE INDEX idx_recipe_user ON recipe (user_id, id);
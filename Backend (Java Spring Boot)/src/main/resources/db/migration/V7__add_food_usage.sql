@@ -0,0 +1,26 @@
+-- Recency-weighted usage of each food item and recipe a user logs, ranked for the frequent foods lists.
+-- Each log adds 2^(days since 2024-01-01 / 14) to its item's score, matching FoodUsageService.
+
+CREATE TABLE food_usage (
+    user_id BIGINT NOT NULL,
+    item_type VARCHAR(16) NOT NULL,
+    item_id BIGINT NOT NULL,
+    score DOUBLE NOT NULL,
+    log_count INT NOT NULL,
+    last_logged DATE NOT NULL,
+    PRIMARY KEY (user_id, item_type, item_id),
+    KEY idx_food_usage_rank (user_id, item_type, score)
+) ENGINE = InnoDB;
+
+-- Seed usage from existing log history
+INSERT INTO food_usage (user_id, item_type, item_id, score, log_count, last_logged)
+SELECT f.user_id, 'FOOD', f.food_item_id, SUM(POW(2, DATEDIFF(f.log_date, '2024-01-01') / 14)), COUNT(*), MAX(f.log_date)
+FROM food_log f
+WHERE f.user_id IS NOT NULL AND f.food_item_id IS NOT NULL AND f.log_date IS NOT NULL
+GROUP BY f.user_id, f.food_item_id;
+
+INSERT INTO food_usage (user_id, item_type, item_id, score, log_count, last_logged)
+SELECT f.user_id, 'RECIPE', f.recipe_id, SUM(POW(2, DATEDIFF(f.log_date, '2024-01-01') / 14)), COUNT(*), MAX(f.log_date)
+FROM food_log f
+WHERE f.user_id IS NOT NULL AND f.recipe_id IS NOT NULL AND f.food_item_id IS NULL AND f.log_date IS NOT NULL
+GROUP BY f.user_id, f.recipe_id;
@@ -0,0 +1,8 @@
+-- Index backing the keyset-paged timeline, which reads a user's food log newest first on
+-- (log_date, log_time, id). InnoDB appends the primary key to every secondary index, so id
+-- does not need to be listed for the seek and the ordering to be served by the index alone.
+CREATE INDEX idx_food_log_user_timeline ON food_log (user_id, log_date, log_time);
+
+-- Older entries may have been logged without a time. A NULL time would fall out of the
+-- seek predicate, so those entries are placed at the start of their day instead.
+UPDATE food_log SET log_time = '00:00:00' WHERE log_time IS NULL;
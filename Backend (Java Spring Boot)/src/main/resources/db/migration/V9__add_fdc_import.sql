@@ -0,0 +1,14 @@
+-- Foods imported from a USDA FoodData Central dump keep their FDC ID. The unique index lets a
+-- re-run of the import update the rows it already wrote instead of duplicating them.
+ALTER TABLE food_item ADD COLUMN fdc_id BIGINT;
+CREATE UNIQUE INDEX uk_food_item_fdc_id ON food_item (fdc_id);
+
+-- How far the import of each dump file has got, committed with every batch so an interrupted
+-- import resumes after the last batch it wrote
+CREATE TABLE fdc_import_checkpoint (
+    source VARCHAR(255) NOT NULL,
+    records_read BIGINT NOT NULL,
+    completed BIT(1) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (source)
+) ENGINE = InnoDB;
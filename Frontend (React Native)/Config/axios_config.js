@@ -112,6 +112,10 @@ const refreshAccessTokenIfNeeded = async (url) => {
 // Create Axios instance with interceptors
 const axiosInstance = axios.create();
 
+// GET responses that came with an ETag, keyed by full request URL, so unchanged data can be revalidated
+const etagCache = new Map();
+const MAX_ETAG_ENTRIES = 50;
+
 axiosInstance.interceptors.request.use(
   async (config) => {
     await refreshAccessTokenIfNeeded(config.url); // Refresh token if needed before request
@@ -119,13 +123,42 @@ axiosInstance.interceptors.request.use(
     if (accessToken) {
       config.headers.Authorization = `Bearer ${accessToken}`;
     }
+
+    // Ask the server to answer with 304 if a cached GET response is still current
+    if (config.method === 'get') {
+      const cached = etagCache.get(axiosInstance.getUri(config));
+      if (cached) {
+        config.headers['If-None-Match'] = cached.etag;
+        config.validateStatus = (status) => (status >= 200 && status < 300) || status === 304;
+      }
+    }
     return config;
   },
   (error) => Promise.reject(error)
 );
 
 axiosInstance.interceptors.response.use(
-  (response) => response,
+  (response) => {
+    if (response.config.method !== 'get') {
+      return response;
+    }
+    const key = axiosInstance.getUri(response.config);
+
+    // Serve the cached body when the server confirms it has not changed
+    if (response.status === 304 && etagCache.has(key)) {
+      return { ...response, status: 200, data: etagCache.get(key).data };
+    }
+
+    // Remember responses that can be revalidated, dropping the oldest once the cache is full
+    if (response.headers.etag) {
+      etagCache.delete(key);
+      etagCache.set(key, { etag: response.headers.etag, data: response.data });
+      if (etagCache.size > MAX_ETAG_ENTRIES) {
+        etagCache.delete(etagCache.keys().next().value);
+      }
+    }
+    return response;
+  },
   async (error) => {
     const originalRequest = error.config;
 
@@ -2,7 +2,6 @@ import React, { useState, useEffect } from 'react';
 import { View, Text, TextInput, FlatList, TouchableOpacity, StyleSheet, Alert, useColorScheme, Dimensions } from 'react-native';
 import { useSafeAreaInsets } from 'react-native-safe-area-context';
 import axiosInstance from '../../Config/axios_config';
-import axios from 'axios';
 import { useNavigation, useRoute } from '@react-navigation/native';
 
 /**
@@ -48,34 +47,25 @@ const AddRecipeFoodItemScreen = () => {
         // Send the request with the provided query or user ID
         url = showCustomFoods 
             ? `/api/food/user/${user.id}`
-            : `/api/food/search?name=${encodeURIComponent(query)}`;
+            : `/api/food/search/paged?name=${encodeURIComponent(query)}&size=50`;
       }
 
       // Fetch results from the determined URL
       const mySQLResults = await axiosInstance.get(url);
 
-      // Process MySQL results
-      filteredResults = mySQLResults.data;
+      // Process MySQL results; searches return a page of results
+      filteredResults = Array.isArray(mySQLResults.data) ? mySQLResults.data : mySQLResults.data.content;
 
       // Additional search if neither food nor recipe is selected
       if (!showCustomFoods) {
-        const fdcResponse = await axios.get('https://api.nal.usda.gov/fdc/v1/foods/search', {
+        // External results come through the server, which shares one cached search across every device
+        const fdcResponse = await axiosInstance.get('/api/food/external/search', {
           params: {
-            api_key: 'removed for github',
             query: query,
-            pageSize: 50,
-            fields: 'description,brandName,fdcId,foodNutrients'
+            pageSize: 50
           }
         });
-        
-        const fdcResults = fdcResponse.data.foods.map(food => ({
-          id: food.fdcId,
-          name: food.brandName ? `${food.description} (${food.brandName})` : food.description,
-          servingSize: food.servingSize,
-          servingSizeUnit: food.servingSizeUnit,
-          servingText: food.householdServingFullText,
-          foodNutrients: food.foodNutrients 
-        }));
+        const fdcResults = fdcResponse.data;
         
         // Combine results
         filteredResults = [
@@ -129,39 +119,9 @@ const AddRecipeFoodItemScreen = () => {
   // Function to load nutrition details when a food item is pressed
   const handleFoodItemPress = async (foodItem) => {
     try {
-      if (foodItem.foodNutrients) {
-        // Retrieve and separate nutrient values from food item
-        let nutrients = foodItem.foodNutrients.reduce((acc, nutrient) => {
-          acc[nutrient.nutrientNumber] = parseFloat(nutrient.value) / 100 || 0;
-          return acc;
-        }, {});
-  
-        // Assign nutrient values and create food item
-        const newFoodItem = {
-          name: foodItem.name,
-          servingSize: foodItem.servingSize,
-          servingSizeUnit: foodItem.servingSizeUnit,
-          servingText: foodItem.servingText,
-          calories: nutrients['208'] || 0,
-          carbs: nutrients['205'] || 0,
-          fat: nutrients['204'] || 0,
-          protein: nutrients['203'] || 0,
-          fiber: nutrients['291'] || 0,
-          calcium: nutrients['301'] || 0,
-          iron: nutrients['303'] || 0,
-          sodium: nutrients['307'] || 0,
-          vitaminA: nutrients['318'] || 0,
-          vitaminC: nutrients['401'] || 0,
-          vitaminD: nutrients['328'] || 0,
-          cholesterol: nutrients['601'] || 0,
-          transFat: nutrients['605'] || 0,
-          saturatedFat: nutrients['606'] || 0,
-          polyunsaturatedFat: nutrients['646'] || 0,
-          monounsaturatedFat: nutrients['645'] || 0,
-          potassium: nutrients['306'] || 0,
-          totalSugars: nutrients['269'] || 0,
-          addedSugars: nutrients['539'] || 0
-        };
+      if (!foodItem.id) {
+        // External results arrive as unsaved food items with nutrients already per gram
+        const newFoodItem = foodItem;
   
         // Send new food item to backend
         const response = await axiosInstance.post('/api/food/add', newFoodItem);
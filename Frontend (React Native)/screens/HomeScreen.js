@@ -15,8 +15,8 @@ import DateTimePicker from '@react-native-community/datetimepicker';
  * This screen is the main dashboard of the app that displays the user's daily nutritional data and progress.
  * It fetches and manages user information, including their nutritional goals and daily intake totals for various nutrients.
  * The screen handles date selection to view historical data and checks if the user has met specific nutritional goals,
- * triggering alerts and updating goal achievement stats accordingly. It also manages login streaks and ensures alerts
- * are only shown once per day. Navigation to other screens occurs based on the user's profile setup status.
+ * triggering alerts for goals the server recorded when it closed out the previous day. Login streaks and goal
+ * achievement stats are kept by the server through a daily check-in, and alerts are only shown once per day. Navigation to other screens occurs based on the user's profile setup status.
  */
 
 const { width, height } = Dimensions.get('window'); 
@@ -112,83 +112,9 @@ const HomeScreen = ({ route, navigation }) => {
     await AsyncStorage.setItem(ALERT_KEYS.allGoals, currentDate);
   };
 
-  // Function to check if previous day ended with any goals met
-  const checkNewDay = async (totals, lastCheckedDate) => {
-    // Exit if no totals are present
-    if (!totals || Object.keys(totals).length === 0) {
-      console.warn("No totals available for checking goals.");
-      return; 
-    }
-
-    // Declare the goal ranges for each nutrient
-    const goalsMet = {
-      calories: totals.calories >= userData.dailyCalorieGoal * 0.95 && totals.calories <= userData.dailyCalorieGoal * 1.05,
-      protein: totals.protein >= userData.dailyProteinGoal * 0.95 && totals.protein <= userData.dailyProteinGoal * 1.05,
-      carbs: totals.carbs >= userData.dailyCarbsGoal * 0.95 && totals.carbs <= userData.dailyCarbsGoal * 1.05,
-      fat: totals.fat >= userData.dailyFatGoal * 0.95 && totals.fat <= userData.dailyFatGoal * 1.05,
-      totalSugars: totals.totalSugars >= userData.totalSugars * 0.50 && totals.totalSugars <= userData.totalSugars * 1.5,
-      addedSugars: totals.addedSugars <= userData.addedSugars * 1,
-      transFat: totals.transFat <= userData.transFat * 1,
-      saturatedFat: totals.saturatedFat <= userData.saturatedFat * 1,
-      polyunsaturatedFat: totals.polyunsaturatedFat >= userData.polyunsaturatedFat * 0.85 && totals.polyunsaturatedFat <= userData.polyunsaturatedFat * 1.2,
-      monounsaturatedFat: totals.monounsaturatedFat >= userData.monounsaturatedFat * 0.85 && totals.monounsaturatedFat <= userData.monounsaturatedFat * 1.2,
-      cholesterol: totals.cholesterol <= userData.cholesterol * 1,
-      fiber: totals.fiber >= userData.fiber * 0.95 && totals.fiber <= userData.fiber * 2,
-      calcium: totals.calcium >= userData.calcium * 0.8 && totals.calcium <= userData.calcium * 1.2,
-      iron: totals.iron >= userData.iron * 0.9 && totals.iron <= userData.iron * 1.25,
-      sodium: totals.sodium >= userData.sodium * 0.25 && totals.sodium <= userData.sodium * 1,
-      potassium: totals.potassium >= userData.potassium * 0.85 && totals.potassium <= userData.potassium * 1.2,
-      vitaminA: totals.vitaminA >= userData.vitaminA * 0.8 && totals.vitaminA <= userData.vitaminA * 1.2,
-      vitaminC: totals.vitaminC >= userData.vitaminC * 0.8 && totals.vitaminC <= userData.vitaminC * 2,
-      vitaminD: totals.vitaminD >= userData.vitaminD * 0.8 && totals.vitaminD <= userData.vitaminD * 1.2,
-      water: (totals.water*29.5735) >= userData.water * 0.95,
-    };
-  
-    // Determine category flags
-    const didMeetAllGoals = Object.values(goalsMet).every(Boolean);
-    const didMeetCalorieGoal = goalsMet.calories;
-    const didMeetCalMacGoal = goalsMet.calories && goalsMet.protein && goalsMet.carbs && goalsMet.fat;
-    const didMeetFiberGoal = goalsMet.fiber;
-    const didMeetWaterGoal = goalsMet.water;
-
+  // Function to alert the user about goals met on the day closed out by their check-in
+  const showGoalAlerts = async (checkIn) => {
     const currentDate = getCurrentDate();
-  
-    // Prepare data to send to the backend
-    const updates = {
-      id: userData.id,
-      metAllGoals: userData.metAllGoals,
-      metCalorieGoal: userData.metCalorieGoal,
-      metCalMacGoal: userData.metCalMacGoal,
-      metFiberGoal: userData.metFiberGoal,
-      metWaterGoal: userData.metWaterGoal,
-      metAllNum: userData.metAllNum,
-      metCalorieNum: userData.metCalorieNum,
-      metCalMacNum: userData.metCalMacNum,
-      metFiberNum: userData.metFiberNum,
-      metWaterNum: userData.metWaterNum,
-    };
-
-    // Update values if goals were met
-    if (didMeetAllGoals) {
-      updates.metAllGoals = lastCheckedDate;
-      updates.metAllNum++;
-    }
-    if (didMeetCalorieGoal) {
-      updates.metCalorieGoal = lastCheckedDate;
-      updates.metCalorieNum++;
-    }
-    if (didMeetCalMacGoal) {
-      updates.metCalMacGoal = lastCheckedDate;
-      updates.metCalMacNum++;
-    }
-    if (didMeetFiberGoal) {
-      updates.metFiberGoal = lastCheckedDate;
-      updates.metFiberNum++;
-    }
-    if (didMeetWaterGoal) {
-      updates.metWaterGoal = lastCheckedDate;
-      updates.metWaterNum++;
-    }
 
     // Check if today's alert flags are set in AsyncStorage
     const alertFlags = await AsyncStorage.multiGet(Object.values(ALERT_KEYS));
@@ -198,51 +124,32 @@ const HomeScreen = ({ route, navigation }) => {
     }, {});
 
     // Alert the user based on goals achieved
-    if (didMeetAllGoals && !alertsShown[ALERT_KEYS.allGoals]) {
+    if (checkIn.metAllGoals && !alertsShown[ALERT_KEYS.allGoals]) {
       Alert.alert("You're Unbelievable!", "You met ALL of your nutritional goals on your most recent logged day. " +
         "You are a Macros&More master! Check out the 'My Info' tab in Settings to see your other achievements.");
       await AsyncStorage.setItem(ALERT_KEYS.allGoals, currentDate);
     } else {
-      if (didMeetCalMacGoal && !alertsShown[ALERT_KEYS.calMac]) {
+      if (checkIn.metCalMacGoal && !alertsShown[ALERT_KEYS.calMac]) {
         Alert.alert("You're killing it!", "You met all of your calorie and macros goals on your most recent logged day. " +
           "Check out the 'My Info' tab in Settings to see your other achievements.");
         await AsyncStorage.setItem(ALERT_KEYS.calMac, currentDate);
       }
-      if (didMeetCalorieGoal && !alertsShown[ALERT_KEYS.calorie]) {
+      if (checkIn.metCalorieGoal && !alertsShown[ALERT_KEYS.calorie]) {
         Alert.alert("Goal Achieved!", "You met your calorie goal on your most recent logged day. " +
           "Check out the 'My Info' tab in Settings to see your other achievements.");
         await AsyncStorage.setItem(ALERT_KEYS.calorie, currentDate);
       }
-      if (didMeetFiberGoal && !alertsShown[ALERT_KEYS.fiber]) {
+      if (checkIn.metFiberGoal && !alertsShown[ALERT_KEYS.fiber]) {
         Alert.alert("Goal Achieved!", "You met your fiber goal on your most recent logged day. " +
           "Check out the 'My Info' tab in Settings to see your other achievements.");
         await AsyncStorage.setItem(ALERT_KEYS.fiber, currentDate);
       }
-      if (didMeetWaterGoal && !alertsShown[ALERT_KEYS.water]) {
+      if (checkIn.metWaterGoal && !alertsShown[ALERT_KEYS.water]) {
         Alert.alert("Goal Achieved!", "You met your water goal on your most recent logged day. " +
           "Check out the 'My Info' tab in Settings to see your other achievements.");
         await AsyncStorage.setItem(ALERT_KEYS.water, currentDate);
       }
     }
-
-    // Only update the backend if at least one goal was met
-    if (didMeetAllGoals || didMeetCalorieGoal || didMeetCalMacGoal || didMeetFiberGoal || didMeetWaterGoal) {
-      try {
-        await axiosInstance.put('/api/users/update', updates);
-      } catch (error) {
-        console.error("Error updating user goals:", error);
-      }
-    }
-
-    // Update the last checked date
-    try {
-      await axiosInstance.put('/api/users/update', {
-        id: userData.id,
-        lastCheckedDate: currentDate,
-      });
-    } catch (error) {
-      console.error("Error updating last checked date:", error);
-    }
   };
 
   // Function to retrieve user's daily nutritional totals
@@ -263,63 +170,17 @@ const HomeScreen = ({ route, navigation }) => {
         setDailyTotals(totals);
 
         const currentDate = getCurrentDate();
-        const lastCheckedDate = userData.lastCheckedDate;
 
-        // If selectedDate is today...
-        if ( selectedDate === currentDate) {
-          // Initialize lastCheckedDate if it's the user's first login
-          if (!lastCheckedDate) {
-            await axiosInstance.put('/api/users/update', {
-              id: userData.id,
-              lastCheckedDate: currentDate,
-              lastTotals: JSON.stringify(totals),
-            });
-            return; // Exit early since there's no previous data to check
-          }
-          const yesterday = new Date();
-          yesterday.setDate(yesterday.getDate() - 1);
-          const yesterdayDate = getCurrentDate(yesterday); // save yesterday's date to check goals
-
-          let newStreakCount = userData.loginStreak;
-
-          // Check if lastCheckedDate was yesterday
-          if (lastCheckedDate === yesterdayDate) {
-            // Increment the login streak
-            newStreakCount += 1; 
-          } else if (lastCheckedDate === currentDate) {
-            // If lastCheckedDate is today, maintain streak value
-            newStreakCount = newStreakCount;
-          } else {
-            // Reset the streak if it's not a consecutive login
-            if (userData.loginStreak !== 1) {
-              newStreakCount = 1; // Reset to 1
-            }
-          }
-
-          // Update the streak if it's changed
-          if (newStreakCount !== userData.loginStreak) {
-            try {
-              await axiosInstance.put('/api/users/update', {
-                id: userData.id,
-                loginStreak: newStreakCount,
-              });
-            } catch (error) {
-              console.error("Error updating user streak:", error);
-            }
-          }
+        // On the first view of a new day, check in so the server updates the streak and closes out the previous day
+        if (selectedDate === currentDate && userData.lastCheckedDate !== currentDate) {
+          const checkInResponse = await axiosInstance.post(`/api/users/${userData.id}/checkin`, null, {
+            params: { date: currentDate },
+          });
+          const checkIn = checkInResponse.data;
 
-          // Check if lastCheckedDate is today
-          if (lastCheckedDate === currentDate) {
-            // If still same day, update saved totals
-            await axiosInstance.put('/api/users/update', {
-              id: userData.id,
-              lastTotals: JSON.stringify(totals),
-            });
-          } else {
-            // If it's a new day, check if previous day's totals met any goals
-            const lastTotals = JSON.parse(userData.lastTotals);
-            await checkNewDay(lastTotals, lastCheckedDate);
-            // Reset alert flags
+          // If a previous day was closed out, alert on its goals and reset alert flags
+          if (checkIn.closedDate) {
+            await showGoalAlerts(checkIn);
             await resetAlertFlags();
           }
         }
@@ -3,7 +3,6 @@ import { View, Text, TextInput, FlatList, TouchableOpacity, StyleSheet,
  Alert, Dimensions, useColorScheme, Keyboard } from 'react-native';
 import AsyncStorage from '@react-native-async-storage/async-storage';
 import axiosInstance from '../../Config/axios_config';
-import axios from 'axios';
 import { useNavigation, useRoute } from '@react-navigation/native';
 import { useSafeAreaInsets } from 'react-native-safe-area-context';
 import Icon from 'react-native-vector-icons/Ionicons';
@@ -76,37 +75,28 @@ const LogFoodScreen = () => {
         // When there's a query, set the URL for searching
         // Listen for the toggle between custom foods and recipes
         url = showCustomRecipes 
-          ? `/api/recipes/search?recipeName=${encodeURIComponent(query)}&userId=${user.id}`
+          ? `/api/recipes/search/paged?recipeName=${encodeURIComponent(query)}&userId=${user.id}&size=50`
           : (showCustomFoods 
             ? `/api/food/user/${user.id}` 
-            : `/api/food/search?name=${encodeURIComponent(query)}`);
+            : `/api/food/search/paged?name=${encodeURIComponent(query)}&size=50`);
       }
 
       // Fetch results from the determined URL
       const mySQLResults = await axiosInstance.get(url);
 
-      // Process MySQL results
-      filteredResults = mySQLResults.data;
+      // Process MySQL results; searches return a page of results
+      filteredResults = Array.isArray(mySQLResults.data) ? mySQLResults.data : mySQLResults.data.content;
 
       // USDA database search if neither custom food nor recipe is selected
       if (!showCustomRecipes && !showCustomFoods) {
-        const fdcResponse = await axios.get('https://api.nal.usda.gov/fdc/v1/foods/search', {
+        // External results come through the server, which shares one cached search across every device
+        const fdcResponse = await axiosInstance.get('/api/food/external/search', {
           params: {
-            api_key: 'removed for github',
             query: query,
-            pageSize: 50,
-            fields: 'description,brandName,fdcId,foodNutrients'
+            pageSize: 50
           }
         });
-        
-        const fdcResults = fdcResponse.data.foods.map(food => ({
-          id: food.fdcId,
-          name: food.brandName ? `${food.description} (${food.brandName})` : food.description,
-          servingSize: food.servingSize,
-          servingSizeUnit: food.servingSizeUnit,
-          servingText: food.householdServingFullText,
-          foodNutrients: food.foodNutrients 
-        }));
+        const fdcResults = fdcResponse.data;
         
         // Combine results
         filteredResults = [
@@ -189,61 +179,9 @@ const LogFoodScreen = () => {
     if (foodItem.recipeName) {
       // Navigate to 'Recipe Details' screen if item is a recipe
       navigation.navigate('Recipe Details', { recipeId: foodItem.id, user: user, selectedDate: selectedDate.toISOString() });
-    } else if (foodItem.foodNutrients) {
-      let calories = 0, carbs = 0, fat = 0, protein = 0, fiber = 0, calcium = 0, iron = 0, sodium = 0, vitaminA = 0, vitaminC = 0, vitaminD = 0;
-      let cholesterol = 0, transFat = 0, saturatedFat = 0, polyunsaturatedFat = 0, monounsaturatedFat = 0, potassium = 0, totalSugars = 0, addedSugars = 0;
-  
-      // Extract nutrient values and assign to variables
-      foodItem.foodNutrients.forEach(nutrient => {
-        switch(nutrient.nutrientNumber) {
-          case '203': protein = nutrient.value; break;
-          case '204': fat = nutrient.value; break;
-          case '205': carbs = nutrient.value; break;
-          case '208': calories = nutrient.value; break;
-          case '269': totalSugars = nutrient.value; break;
-          case '291': fiber = nutrient.value; break;
-          case '301': calcium = nutrient.value; break;
-          case '303': iron = nutrient.value; break;
-          case '307': sodium = nutrient.value; break;
-          case '320': vitaminA = nutrient.value; break;
-          case '401': vitaminC = nutrient.value; break;
-          case '601': cholesterol = nutrient.value; break;
-          case '605': transFat = nutrient.value; break;
-          case '606': saturatedFat = nutrient.value; break;
-          case '646': polyunsaturatedFat = nutrient.value; break;
-          case '645': monounsaturatedFat = nutrient.value; break;
-          case '306': potassium = nutrient.value; break;
-          case '539': addedSugars = nutrient.value; break;
-          case '328': vitaminD = nutrient.value; break;
-        }
-      });
-  
-      // Create food item to add to user database
-      const newFoodItem = {
-        name: foodItem.name,
-        servingSize: foodItem.servingSize,
-        servingSizeUnit: foodItem.servingSizeUnit,
-        servingText: foodItem.servingText,
-        calories: (parseFloat(calories)/100) || 0,
-        carbs: (parseFloat(carbs)/100) || 0,
-        fat: (parseFloat(fat)/100) || 0,
-        protein: (parseFloat(protein)/100) || 0,
-        totalSugars: (parseFloat(totalSugars)/100) || 0,
-        fiber: (parseFloat(fiber)/100) || 0,
-        calcium: (parseFloat(calcium)/100) || 0,
-        iron: (parseFloat(iron)/100) || 0, 
-        sodium: (parseFloat(sodium)/100) || 0,
-        vitaminA: (parseFloat(vitaminA)/100) || 0,
-        vitaminC: (parseFloat(vitaminC)/100) || 0,
-        cholesterol: (parseFloat(cholesterol)/100) || 0,
-        transFat: (parseFloat(transFat)/100) || 0,
-        saturatedFat: (parseFloat(saturatedFat)/100) || 0,
-        polyunsaturatedFat: (parseFloat(polyunsaturatedFat)/100) || 0,
-        monounsaturatedFat: (parseFloat(monounsaturatedFat)/100) || 0,
-        potassium: (parseFloat(potassium)/100) || 0,
-        addedSugars: (parseFloat(addedSugars)/100) || 0,
-        vitaminD: (parseFloat(vitaminD)/100) || 0,
-      };
+    } else if (!foodItem.id) {
+      // External results arrive as unsaved food items with nutrients already per gram
+      const newFoodItem = foodItem;
   
       // Save food item to database
       axiosInstance.post('/api/food/add', newFoodItem)